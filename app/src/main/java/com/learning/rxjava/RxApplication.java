@@ -0,0 +1,30 @@
+package com.learning.rxjava;
+
+import android.app.Application;
+
+import com.learning.rxjava.network.RestClient;
+import com.learning.rxjava.repository.GistDiskStore;
+import com.learning.rxjava.repository.GistRepository;
+import com.learning.rxjava.rx.tracing.OperatorTracer;
+
+import java.io.File;
+
+public class RxApplication extends Application {
+
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
+    // Times one onNext out of TRACE_SAMPLE_RATE in every operator, see OperatorTracer
+    private static final boolean TRACE_OPERATORS = false;
+    private static final int TRACE_SAMPLE_RATE = 100;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        RestClient.init(new RestClient.Builder()
+                .cache(new File(getCacheDir(), "http"), HTTP_CACHE_SIZE));
+        GistRepository.init(new GistDiskStore(new File(getFilesDir(), "gists")));
+        if (TRACE_OPERATORS) {
+            OperatorTracer.getInstance().enable(TRACE_SAMPLE_RATE);
+        }
+    }
+}
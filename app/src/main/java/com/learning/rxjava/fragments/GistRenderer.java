@@ -0,0 +1,86 @@
+package com.learning.rxjava.fragments;
+
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistFile;
+
+import java.util.Map;
+
+/**
+ * Builds the text IntroFragment shows for a gist.
+ *
+ * The output length is computed up front, so the StringBuilder is allocated once with the exact
+ * capacity and never grows. The result is handed over as a CharSequence: TextView makes its own
+ * copy anyway, an extra toString() would only add another one.
+ */
+public final class GistRenderer {
+
+    private static final String LOGIN = "login";
+    private static final String LOGIN_SEPARATOR = " : ";
+    private static final String HEADER_END = "\n\n\n";
+    private static final String FILE_SEPARATOR = " - Length of file ";
+
+    private GistRenderer() {
+    }
+
+    public static CharSequence render(Gist gist) {
+        String login = gist.owner != null ? gist.owner.get(LOGIN) : null;
+
+        int length = HEADER_END.length();
+        if (login != null) {
+            length += LOGIN.length() + LOGIN_SEPARATOR.length() + login.length();
+        }
+        if (gist.files != null) {
+            for (Map.Entry<String, GistFile> entry : gist.files.entrySet()) {
+                length += lineLength(entry.getKey(), entry.getValue());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        if (login != null) {
+            sb.append(LOGIN).append(LOGIN_SEPARATOR).append(login);
+        }
+        sb.append(HEADER_END);
+        if (gist.files != null) {
+            for (Map.Entry<String, GistFile> entry : gist.files.entrySet()) {
+                appendLine(sb, entry.getKey(), entry.getValue());
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * One line per file, used when files are displayed while they are being decoded.
+     */
+    public static CharSequence renderLine(GistFile file) {
+        StringBuilder sb = new StringBuilder(lineLength(file.filename, file));
+        appendLine(sb, file.filename, file);
+        return sb;
+    }
+
+    public static CharSequence renderHeader(String login) {
+        return new StringBuilder(LOGIN.length() + LOGIN_SEPARATOR.length() + login.length()
+                + HEADER_END.length())
+                .append(LOGIN).append(LOGIN_SEPARATOR).append(login).append(HEADER_END);
+    }
+
+    private static int lineLength(String name, GistFile file) {
+        return String.valueOf(name).length() + FILE_SEPARATOR.length()
+                + digits(file != null ? file.size : 0) + 1;
+    }
+
+    private static void appendLine(StringBuilder sb, String name, GistFile file) {
+        sb.append(name).append(FILE_SEPARATOR).append(file != null ? file.size : 0).append('\n');
+    }
+
+    static int digits(long value) {
+        if (value < 0) {
+            return value == Long.MIN_VALUE ? 20 : 1 + digits(-value);
+        }
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
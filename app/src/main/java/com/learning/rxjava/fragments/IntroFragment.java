@@ -4,40 +4,50 @@ package com.learning.rxjava.fragments;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
-import com.google.gson.Gson;
 import com.learning.rxjava.R;
 import com.learning.rxjava.introtorxtutorials.part4_concurrency.BackPressure;
 import com.learning.rxjava.introtorxtutorials.part4_concurrency.SchedulingThreading;
 import com.learning.rxjava.introtorxtutorials.part4_concurrency.SequenceOfCoincidences;
 import com.learning.rxjava.models.Gist;
 import com.learning.rxjava.models.GistFile;
+import com.learning.rxjava.repository.GistRepository;
+import com.learning.rxjava.rx.logging.AsyncLogSink;
+import com.learning.rxjava.rx.metrics.MetricsRegistry;
+import com.learning.rxjava.rx.tracing.OperatorTracer;
 
-import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.Observable;
-import io.reactivex.ObservableSource;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class IntroFragment extends Fragment {
 
     private static final String TAG = IntroFragment.class.getSimpleName();
 
+    /**
+     * When true the gist is decoded with {@link com.learning.rxjava.network.GistStreamDecoder} and files are displayed one by
+     * one, otherwise the whole Gist is parsed with Gson before anything is shown.
+     */
+    private static final boolean STREAMING_DECODE = true;
+
+    // https://gist.github.com/donnfelker/db72a05cc03ef523ee74
+    private static final String GIST_ID = "db72a05cc03ef523ee74";
+
     private Disposable subscription;
 
     BackPressure introtorx;
@@ -50,52 +60,37 @@ public class IntroFragment extends Fragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        Function<Gist, StringBuilder> outputToDisplay = new Function<Gist, StringBuilder>() {
+        Function<Gist, CharSequence> gistToDisplay = GistRenderer::render;
+
+        // Renders one file of the gist, so lines show up while the rest is still being parsed
+        Function<GistFile, CharSequence> outputToDisplay = GistRenderer::renderLine;
+
+        Consumer<Throwable> logError = new Consumer<Throwable>() {
             @Override
-            public StringBuilder apply(@NonNull Gist gist) throws Exception {
-                StringBuilder sb1 = new StringBuilder();
-                for (Map.Entry<String, String> owner : gist.owner.entrySet()) {
-                    if(owner.getKey().equals("login")) {
-                        sb1.append(owner.getKey());
-                        sb1.append(" : ");
-                        sb1.append(owner.getValue());
-                    }
-                }
-
-                sb1.append("\n\n\n");
-
-                for (Map.Entry<String, GistFile> entry : gist.files.entrySet()) {
-                    sb1.append(entry.getKey());
-                    sb1.append(" - ");
-                    sb1.append("Length of file ");
-                    sb1.append(entry.getValue().size);
-                    sb1.append("\n");
-                }
-                return sb1;
+            public void accept(@NonNull Throwable throwable) throws Exception {
+                Log.e(TAG, String.valueOf(throwable.getMessage()));
             }
         };
 
         //subscribing
-        subscription = getGistObservable()
+        // once the gist is stored there is nothing left to stream, it is shown right away and
+        // refreshed in the background. Finding out touches the disk, so the choice is made on the
+        // io thread; every emission says what to do with the TextView on the main thread.
+        subscription = Flowable.defer(() ->
+                STREAMING_DECODE && !GistRepository.getInstance().hasLocalCopy(GIST_ID)
+                        ? streamedGist(outputToDisplay)
+                        : storedGist(gistToDisplay))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
-                .map(outputToDisplay)
-                .doOnError(new Consumer<Throwable>() {
+                .subscribe(new Consumer<Consumer<TextView>>() {
                     @Override
-                    public void accept(@NonNull Throwable throwable) throws Exception {
-                        Log.e(TAG, throwable.getCause().getMessage());
-                    }
-                })
-                .subscribe(new Consumer<StringBuilder>() {
-                    @Override
-                    public void accept(@NonNull StringBuilder stringBuilder) throws Exception {
-                        if(getView().findViewById(R.id.main_message) != null) {
-                            TextView textView = (TextView) getView()
-                                    .findViewById(R.id.main_message);
-                            textView.setText(stringBuilder.toString());
+                    public void accept(@NonNull Consumer<TextView> update) throws Exception {
+                        TextView textView = messageView();
+                        if (textView != null) {
+                            update.accept(textView);
                         }
                     }
-                });
+                }, logError);
 
         //testing IntroToRx Tutorial exercises
 //        CreatingSequence introtorx = new CreatingSequence();
@@ -162,22 +157,8 @@ public class IntroFragment extends Fragment {
     }
 
     @Nullable
-    private Gist getGist() throws IOException {
-        OkHttpClient client = new OkHttpClient();
-
-        // Go get this Gist: https://gist.github.com/donnfelker/db72a05cc03ef523ee74
-        // via the GitHub API
-        Request request = new Request.Builder()
-                .url("https://api.github.com/gists/db72a05cc03ef523ee74")
-                .build();
-
-        Response response = client.newCall(request).execute();
-
-        if(response.isSuccessful()) {
-            return new Gson().fromJson(response.body().charStream(), Gist.class);
-        } else {
-            return null;
-        }
+    private TextView messageView() {
+        return getView() != null ? (TextView) getView().findViewById(R.id.main_message) : null;
     }
 
     @Override
@@ -188,21 +169,51 @@ public class IntroFragment extends Fragment {
         }
 
         introtorx.clear();
+        AsyncLogSink.getDefault().log(TAG, MetricsRegistry.getDefault().dump());
+        if (OperatorTracer.getInstance().isEnabled()) {
+            AsyncLogSink.getDefault().log(TAG, OperatorTracer.getInstance().dump());
+        }
     }
 
 
 
+    private Flowable<Consumer<TextView>> streamedGist(Function<GistFile, CharSequence> outputToDisplay) {
+        final AtomicReference<String> ownerLogin = new AtomicReference<>();
+        // reading and decoding interleave here, so both stay on the io thread
+        Flowable<Consumer<TextView>> lines = getGistFilesFlowable(ownerLogin::set)
+                .compose(MetricsRegistry.getDefault().<GistFile>stage("gist.files"))
+                .map(outputToDisplay)
+                .map(line -> (Consumer<TextView>) textView -> textView.append(line));
+        // GitHub sends the owner after the files, so the header goes in last
+        Flowable<Consumer<TextView>> header = Maybe
+                .fromCallable(ownerLogin::get)
+                .map(login -> (Consumer<TextView>) textView -> textView.setText(TextUtils.concat(
+                        GistRenderer.renderHeader(login), textView.getText())))
+                .toFlowable();
+        return lines.concatWith(header);
+    }
+
+    private Flowable<Consumer<TextView>> storedGist(Function<Gist, CharSequence> gistToDisplay) {
+        // decompressing, parsing and rendering run on a computation worker, only the
+        // rendered text crosses over to the main thread
+        return getGistObservable()
+                .subscribeOn(Schedulers.computation())
+                .compose(MetricsRegistry.getDefault().<Gist>stage("gist"))
+                .map(gistToDisplay)
+                .map(text -> (Consumer<TextView>) textView -> textView.setText(text))
+                .toFlowable(BackpressureStrategy.LATEST);
+    }
+
     public Observable<Gist> getGistObservable() {
-        return Observable.defer(new Callable<ObservableSource<? extends Gist>>() {
-            @Override
-            public ObservableSource<? extends Gist> call() throws Exception {
-                try {
-                    return Observable.just(getGist()); //gets called only after subscriber
-                } catch (IOException e) {
-                    return Observable.error(e); //for better error handling in onError()
-                }
-            }
-        });
+        // Shows the stored copy of this Gist first, then whatever the GitHub API returns if it
+        // changed. gets called only after subscriber, errors end up in onError()
+        return GistRepository.getInstance()
+                .observeGist(GIST_ID);
+    }
+
+    public Flowable<GistFile> getGistFilesFlowable(Consumer<String> onOwnerLogin) {
+        return GistRepository.getInstance()
+                .streamGistFiles(GIST_ID, onOwnerLogin);
     }
 
 }
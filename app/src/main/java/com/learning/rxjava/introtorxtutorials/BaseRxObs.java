@@ -1,194 +1,91 @@
 package com.learning.rxjava.introtorxtutorials;
 
 
-import android.util.Log;
-
-import io.reactivex.annotations.NonNull;
-import io.reactivex.disposables.CompositeDisposable;
-import io.reactivex.observers.DisposableMaybeObserver;
-import io.reactivex.observers.DisposableObserver;
-import io.reactivex.observers.DisposableSingleObserver;
-import io.reactivex.subscribers.DisposableSubscriber;
-
+import com.learning.rxjava.rx.disposables.TrackedCompositeDisposable;
+import com.learning.rxjava.rx.logging.AsyncLogSink;
+import com.learning.rxjava.rx.observers.BooleanSink;
+import com.learning.rxjava.rx.observers.NumberSink;
+import com.learning.rxjava.rx.observers.ObjectSink;
+import com.learning.rxjava.rx.observers.RecordingObserver;
+import com.learning.rxjava.rx.observers.RecordingSubscriber;
+import com.learning.rxjava.rx.observers.RingSink;
+
+import java.util.List;
+
+/**
+ * The observers handed out here record events into preallocated rings (see
+ * {@link RingSink}) instead of logging each one. Integers and Longs are stored as primitive
+ * longs and nothing is formatted while items flow, so pipelines over millions of items measure
+ * the pipeline and not the logging. The recording is formatted once, when the stream terminates,
+ * and written by the {@link AsyncLogSink} on its own thread.
+ *
+ * Subscriptions added to {@link #disposable} are tracked per demo class: the ones still running
+ * when {@link #clear()} is called are logged with where they were created and how old they are.
+ */
 public class BaseRxObs {
 
     protected static final String TAG = "BaseRx";
 
-    protected final CompositeDisposable disposable = new CompositeDisposable();
-
-    protected DisposableObserver<Integer> intDisposableObserver() {
-        return new DisposableObserver<Integer>() {
-            @Override
-            public void onNext(@NonNull Integer s) {
-                Log.i(TAG, "onNext: " + s);
-            }
-
-            @Override
-            public void onError(@NonNull Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete");
-            }
-        };
+    /**
+     * How many of the last values each observer keeps for its report.
+     */
+    protected static final int RECORDED_VALUES = 64;
+
+    protected final TrackedCompositeDisposable disposable = new TrackedCompositeDisposable(
+            getClass().getSimpleName(), new TrackedCompositeDisposable.LeakReporter() {
+        @Override
+        public void onLeaks(String scope, List<TrackedCompositeDisposable.Tracked> leaked) {
+            for (TrackedCompositeDisposable.Tracked subscription : leaked) {
+                AsyncLogSink.getDefault().log(TAG, "Still running on clear: ", subscription);
+            }
+        }
+    });
+
+    protected final RingSink.Reporter reporter = new RingSink.Reporter() {
+        @Override
+        public void report(RingSink<?> sink) {
+            AsyncLogSink.getDefault().log(TAG, "", sink);
+        }
+    };
+
+    protected RecordingObserver<Integer> intDisposableObserver() {
+        return new RecordingObserver<>(new NumberSink<Integer>("int", RECORDED_VALUES, reporter));
     }
 
-    protected DisposableObserver<Long> longDisposableObserver() {
-        return new DisposableObserver<Long>() {
-            @Override
-            public void onNext(@NonNull Long s) {
-                Log.i(TAG, "onNext: " + s);
-            }
-
-            @Override
-            public void onError(@NonNull Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete");
-            }
-        };
+    protected RecordingObserver<Long> longDisposableObserver() {
+        return new RecordingObserver<>(new NumberSink<Long>("long", RECORDED_VALUES, reporter));
     }
 
-    protected DisposableObserver<String> stringDisposableObserver() {
-        return new DisposableObserver<String>() {
-            @Override
-            public void onNext(@NonNull String s) {
-                Log.i(TAG, "onNext: " + s);
-            }
-
-            @Override
-            public void onError(@NonNull Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete");
-            }
-        };
+    protected RecordingObserver<String> stringDisposableObserver() {
+        return new RecordingObserver<>(new ObjectSink<String>("string", RECORDED_VALUES, reporter));
     }
 
-    protected DisposableSingleObserver<Boolean> boolDisposableSingleObserver() {
-        return new DisposableSingleObserver<Boolean>() {
-            @Override
-            public void onSuccess(@NonNull Boolean bool) {
-                Log.i(TAG, "onSuccess: " + bool);
-            }
-
-            @Override
-            public void onError(@NonNull Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-        };
+    protected RecordingObserver<Boolean> boolDisposableSingleObserver() {
+        return new RecordingObserver<>(new BooleanSink("bool", RECORDED_VALUES, reporter));
     }
 
-    protected DisposableSingleObserver<Long> longDisposableSingleObserver() {
-        return new DisposableSingleObserver<Long>() {
-            @Override
-            public void onSuccess(Long aLong) {
-                Log.i(TAG, "onSuccess: " + aLong);
-            }
-
-            @Override
-            public void onError(Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-        };
+    protected RecordingObserver<Long> longDisposableSingleObserver() {
+        return longDisposableObserver();
     }
 
-    protected DisposableSingleObserver<String> stringDisposableSingleObserver() {
-        return new DisposableSingleObserver<String>() {
-            @Override
-            public void onSuccess(String s) {
-                Log.i(TAG, "onSuccess: " + s);
-            }
-
-            @Override
-            public void onError(Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-        };
+    protected RecordingObserver<String> stringDisposableSingleObserver() {
+        return stringDisposableObserver();
     }
 
-    protected DisposableMaybeObserver<Long> longDisposableMaybeObserver() {
-        return new DisposableMaybeObserver<Long>() {
-            @Override
-            public void onSuccess(Long aLong) {
-                Log.i(TAG, "onSuccess: " + aLong);
-            }
-
-            @Override
-            public void onError(Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete");
-            }
-        };
+    protected RecordingObserver<Long> longDisposableMaybeObserver() {
+        return longDisposableObserver();
     }
 
-    protected DisposableMaybeObserver<String> stringDisposableMaybeObserver() {
-        return new DisposableMaybeObserver<String>() {
-            @Override
-            public void onSuccess(String s) {
-                Log.i(TAG, "onSuccess: " + s);
-            }
-
-            @Override
-            public void onError(Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete");
-            }
-        };
+    protected RecordingObserver<String> stringDisposableMaybeObserver() {
+        return stringDisposableObserver();
     }
 
-    protected DisposableMaybeObserver<Integer> intDisposableMaybeObserver() {
-        return new DisposableMaybeObserver<Integer>() {
-            @Override
-            public void onSuccess(Integer aLong) {
-                Log.i(TAG, "onSuccess: " + aLong);
-            }
-
-            @Override
-            public void onError(Throwable e) {
-                Log.i(TAG, "onError: " + e);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete");
-            }
-        };
+    protected RecordingObserver<Integer> intDisposableMaybeObserver() {
+        return intDisposableObserver();
     }
 
-    protected DisposableSubscriber<Integer> intDisposableSubscriber() {
-        return new DisposableSubscriber<Integer>() {
-            @Override
-            public void onNext(Integer integer) {
-                Log.i(TAG, "onNext: " + integer);
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                Log.i(TAG, "onError: " + t);
-            }
-
-            @Override
-            public void onComplete() {
-                Log.i(TAG, "onComplete ");
-            }
-        };
+    protected RecordingSubscriber<Integer> intDisposableSubscriber() {
+        return new RecordingSubscriber<>(new NumberSink<Integer>("int", RECORDED_VALUES, reporter));
     }
 
     public void clear() {
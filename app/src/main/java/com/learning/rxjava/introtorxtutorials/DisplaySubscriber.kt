@@ -1,13 +1,19 @@
 package com.learning.rxjava.introtorxtutorials
 
-import android.util.Log
+import com.learning.rxjava.rx.logging.AsyncLogSink
 import io.reactivex.functions.Consumer
 
 class DisplayConsumer(val name: String) : Consumer<Any> {
 
     val TAG = "BaseRx"
 
+    private val prefix = name + " : "
+
+    /**
+     * Only queues the value; the AsyncLogSink writer thread builds the message and logs it. Values
+     * that can change later are turned into a String before they are queued.
+     */
     override fun accept(t: Any) {
-        Log.i(TAG, name+ " : " + t)
+        AsyncLogSink.getDefault().log(TAG, prefix, t)
     }
-}
\ No newline at end of file
+}
@@ -93,7 +93,7 @@ public class CreatingSequence extends BaseRxObs {
      **/
     public void createRangeObservable() {
         Observable<Integer> values = Observable.range(10,100);
-        values.subscribe(integer -> Log.i(TAG, "Integers Range: " + integer));
+        disposable.add(values.subscribe(integer -> Log.i(TAG, "Integers Range: " + integer)));
     }
 
     /**
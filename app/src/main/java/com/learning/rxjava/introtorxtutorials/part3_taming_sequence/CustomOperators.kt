@@ -3,10 +3,15 @@ package com.learning.rxjava.introtorxtutorials.part3_taming_sequence
 import android.util.Log
 import com.learning.rxjava.introtorxtutorials.BaseRxObs
 import com.learning.rxjava.introtorxtutorials.DisplayConsumer
+import com.learning.rxjava.rx.operators.RunningStats
+import com.learning.rxjava.rx.operators.RunningStatsOperator
+import com.learning.rxjava.rx.sources.MpscObservable
 import io.reactivex.Observable
 import io.reactivex.ObservableSource
 import io.reactivex.ObservableTransformer
 import io.reactivex.functions.Action
+import io.reactivex.schedulers.Schedulers
+import java.util.function.ToIntFunction
 
 /**
  * Both lift and compose are meta-operators, used for injecting a custom operator into the chain.
@@ -51,23 +56,32 @@ class CustomOperators : BaseRxObs() {
         )
     }
 
+    /**
+     * Same as above with a function returning a primitive int, see IntWorldLengthOperator
+     */
+    fun operatorTargetingLiftInt() {
+        disposable.add(
+                Observable.just("Wahib", "ul", "Haq")
+                        .lift(IntWorldLengthOperator(ToIntFunction { it.length }))
+                        .subscribeWith(intDisposableObserver())
+        )
+    }
+
     /**
      * Implementing your own Transformer
      *
      * Transformer is actually just Func1<Observable<T>, Observable<R>>. In other words: feed it an
      * Observable of one type and it'll return an Observable of another.
+     *
+     * The statistics come from RunningStatsOperator, which keeps a primitive accumulator per
+     * subscriber instead of allocating one per element through scan().
      */
     private class RunningAverage : ObservableTransformer<Int, kotlin.String> {
 
-        private class AverageAcc(val sum: Int, val count: Int)
-
         override fun apply(source: Observable<Int>): ObservableSource<String> {
             return source
-                    .scan(AverageAcc(0,0),
-                            { acc: AverageAcc, v: Int ->
-                                AverageAcc(acc.sum + v, acc.count + 1) })
-                    .filter { acc: AverageAcc -> acc.sum > 0 }
-                    .map { acc: AverageAcc -> acc.count.toString() + " : " + acc.sum.div(acc.count).toString() }
+                    .lift(RunningStatsOperator.create<Int>())
+                    .map { stats: RunningStats -> stats.count().toString() + " : " + stats.mean().toString() }
         }
     }
 
@@ -87,9 +101,32 @@ class CustomOperators : BaseRxObs() {
         }
                 .serialize()
 
-        source
+        disposable.add(source
+                .doFinally { Log.i(TAG, "Unsubscribed") }
+                .subscribe(DisplayConsumer("Next"), DisplayConsumer("Error"),
+                        Action { Log.i(TAG, "Completed") }))
+    }
+
+    /**
+     * MpscObservable gives the same guarantees as create(...).serialize() without locking, so
+     * several threads can push into it at the same time. Here three threads emit concurrently:
+     * every item arrives, one at a time, and nothing after onComplete gets through.
+     */
+    fun serializeFromManyThreads() {
+        val source = MpscObservable.create<Int> { o ->
+            val producers = (0 until 3).map { p ->
+                Thread { (0 until 5).forEach { o.onNext(p * 100 + it) } }
+            }
+            producers.forEach { it.start() }
+            producers.forEach { it.join() }
+            o.onComplete()
+            o.onNext(-1)
+        }
+
+        disposable.add(source
+                .subscribeOn(Schedulers.io())
                 .doFinally { Log.i(TAG, "Unsubscribed") }
                 .subscribe(DisplayConsumer("Next"), DisplayConsumer("Error"),
-                        Action { Log.i(TAG, "Completed") })
+                        Action { Log.i(TAG, "Completed") }))
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,11 @@
 package com.learning.rxjava.introtorxtutorials.part3_taming_sequence;
 
 
+import com.learning.rxjava.rx.operators.FuseableObserver;
+
 import io.reactivex.ObservableOperator;
 import io.reactivex.Observer;
-import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.functions.ObjectHelper;
 import kotlin.jvm.functions.Function1;
 
 /**
@@ -13,37 +15,39 @@ import kotlin.jvm.functions.Function1;
  * at the end of the chain and is propagated to the source. In other words, a subscription goes
  * backwards through the chain of operators. Each operator receives a subscription (i.e. is subscribed to) and uses that
  * subscription to create a subscription to the preceeding operator.
+ *
+ * The observer is a {@link FuseableObserver}, so it takes part in queue fusion the way map() does:
+ * it hands itself downstream as the QueueDisposable, forwards fusion requests upstream, and in
+ * fused mode applies the transformer in poll() instead of onNext(). A plain Observer that passes the upstream Disposable through would
+ * let a downstream poll just()/fromIterable() directly and skip the transformer. Fusion across a
+ * thread boundary (observeOn) is refused, so the transformer always runs where it did before.
+ * See {@link IntWorldLengthOperator} for a variant whose function returns a primitive int.
  */
-class FindWorldLengthOperator implements ObservableOperator<Integer, String> {
+public class FindWorldLengthOperator implements ObservableOperator<Integer, String> {
 
-    private Function1<String, Integer> transformer;
+    private final Function1<String, Integer> transformer;
 
     public FindWorldLengthOperator(Function1<String, Integer> transformer) {
         this.transformer = transformer;
     }
 
     @Override
-    public Observer<? super java.lang.String> apply(Observer<? super java.lang.Integer> child) throws Exception {
-        return new Observer<java.lang.String>() {
-            @Override
-            public void onSubscribe(Disposable d) {
-                child.onSubscribe(d);
-            }
-
-            @Override
-            public void onNext(java.lang.String s) {
-                child.onNext(transformer.invoke(s));
-            }
-
-            @Override
-            public void onError(Throwable e) {
-                child.onError(e);
-            }
-
-            @Override
-            public void onComplete() {
-                child.onComplete();
-            }
-        };
+    public Observer<? super String> apply(Observer<? super Integer> child) throws Exception {
+        return new LengthObserver(child, transformer);
+    }
+
+    static final class LengthObserver extends FuseableObserver<String, Integer> {
+
+        private final Function1<String, Integer> transformer;
+
+        LengthObserver(Observer<? super Integer> downstream, Function1<String, Integer> transformer) {
+            super(downstream);
+            this.transformer = transformer;
+        }
+
+        @Override
+        protected Integer apply(String s) {
+            return ObjectHelper.requireNonNull(transformer.invoke(s), "The transformer returned a null value.");
+        }
     }
 }
@@ -22,11 +22,11 @@ class HotObservables : BaseRxObs() {
             .publish()
 
     fun usingConnect() {
-        connectable.connect()
+        disposable.add(connectable.connect())
 
-        connectable.subscribe(DisplayConsumer("first"))
+        disposable.add(connectable.subscribe(DisplayConsumer("first")))
         Thread.sleep(500)
-        connectable.subscribe(DisplayConsumer("second"))
+        disposable.add(connectable.subscribe(DisplayConsumer("second")))
     }
 
     fun usingReconnect() {
@@ -42,14 +42,15 @@ class HotObservables : BaseRxObs() {
         Log.i(TAG, "Reconnecting")
 
         //unlike tutorial, I have to subscribe again to start receiving emittions
-        connectable.subscribe(DisplayConsumer("usingReconnect"))
-        connectable.connect()
+        disposable.add(connectable.subscribe(DisplayConsumer("usingReconnect")))
+        disposable.add(connectable.connect())
     }
 
     fun unsubscribingOnlyOne() {
-        connectable.connect()
+        disposable.add(connectable.connect())
 
         val disposable1 = connectable.subscribe(DisplayConsumer("First"))
+        disposable.add(disposable1)
         Thread.sleep(500)
         val disposable2 = connectable.subscribe(DisplayConsumer("Second"))
         Thread.sleep(500)
@@ -0,0 +1,68 @@
+package com.learning.rxjava.introtorxtutorials.part3_taming_sequence;
+
+import com.learning.rxjava.rx.observers.IntObserver;
+import com.learning.rxjava.rx.operators.FuseableObserver;
+
+import java.util.function.ToIntFunction;
+
+import io.reactivex.ObservableOperator;
+import io.reactivex.Observer;
+
+/**
+ * {@link FindWorldLengthOperator} for a function that returns a primitive int. When it is
+ * subscribed to by an {@link IntObserver} directly, the length goes to onNextInt() and is never
+ * boxed. Any other Observer<Integer> needs an Integer, so it gets one, just like from the
+ * Function1 version.
+ *
+ * Fusion works exactly like in {@link FindWorldLengthOperator}; poll() returns an Integer too.
+ */
+public class IntWorldLengthOperator implements ObservableOperator<Integer, String> {
+
+    private final ToIntFunction<String> transformer;
+
+    public IntWorldLengthOperator(ToIntFunction<String> transformer) {
+        this.transformer = transformer;
+    }
+
+    @Override
+    public Observer<? super String> apply(Observer<? super Integer> child) throws Exception {
+        return new IntLengthObserver(child, transformer);
+    }
+
+    static final class IntLengthObserver extends FuseableObserver<String, Integer> {
+
+        private final ToIntFunction<String> transformer;
+        // downstream when it takes ints, null otherwise
+        private final IntObserver intDownstream;
+
+        IntLengthObserver(Observer<? super Integer> downstream, ToIntFunction<String> transformer) {
+            super(downstream);
+            this.transformer = transformer;
+            this.intDownstream = downstream instanceof IntObserver ? (IntObserver) downstream : null;
+        }
+
+        @Override
+        public void onNext(String s) {
+            if (intDownstream == null || sourceMode != NONE) {
+                super.onNext(s);
+                return;
+            }
+            if (done) {
+                return;
+            }
+            int length;
+            try {
+                length = transformer.applyAsInt(s);
+            } catch (Throwable ex) {
+                fail(ex);
+                return;
+            }
+            intDownstream.onNextInt(length);
+        }
+
+        @Override
+        protected Integer apply(String s) {
+            return transformer.applyAsInt(s);
+        }
+    }
+}
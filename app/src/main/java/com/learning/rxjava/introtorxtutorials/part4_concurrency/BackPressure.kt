@@ -3,6 +3,16 @@ package com.learning.rxjava.introtorxtutorials.part4_concurrency
 import android.util.Log
 import com.learning.rxjava.introtorxtutorials.BaseRxObs
 import com.learning.rxjava.introtorxtutorials.DisplayConsumer
+import com.learning.rxjava.models.Gist
+import com.learning.rxjava.network.RestClient
+import com.learning.rxjava.rx.metrics.MetricsRegistry
+import com.learning.rxjava.rx.operators.AdaptiveObserveOn
+import com.learning.rxjava.rx.operators.BatchCompute
+import com.learning.rxjava.rx.operators.Rails
+import com.learning.rxjava.rx.operators.SpillingBackpressureBuffer
+import com.learning.rxjava.rx.spill.Serializer
+import com.learning.rxjava.rx.sources.IngestionGateway
+import com.learning.rxjava.rx.sources.OverflowPolicy
 import io.reactivex.BackpressureOverflowStrategy
 import io.reactivex.Flowable
 import io.reactivex.Observable
@@ -10,6 +20,8 @@ import io.reactivex.functions.Consumer
 import io.reactivex.processors.PublishProcessor
 import io.reactivex.schedulers.Schedulers
 import io.reactivex.subjects.PublishSubject
+import io.reactivex.subscribers.DisposableSubscriber
+import java.io.File
 import java.util.concurrent.TimeUnit
 
 
@@ -24,6 +36,36 @@ import java.util.concurrent.TimeUnit
  */
 class BackPressure : BaseRxObs() {
 
+    private val adaptiveObserveOn = AdaptiveObserveOn.Builder(Schedulers.computation())
+            .batch(4, 256)
+            .bound(8, 1024)
+            .targetLatency(100, TimeUnit.MILLISECONDS)
+            .build<Int>()
+
+    private val batchCompute = BatchCompute.Builder<Int, Long>({ batch -> computeBatch(batch) },
+            Schedulers.computation())
+            .closeAfter(1024, 50, TimeUnit.MILLISECONDS)
+            .build()
+
+    /**
+     * When above 0, understandingCoroutines() and usingOnBackPressureBuffer() spread their work
+     * over this many rails of the computation scheduler instead of funnelling it through one
+     * observeOn worker. Every rail records into its own metrics, e.g. "coroutines.rails[0]".
+     */
+    var rails = 0
+
+    /**
+     * Whether the rails merge back in the order of range() or in the order they finish.
+     */
+    var orderedRails = true
+
+    private fun <R> onRails(name: String, mapper: (Int) -> R): Rails<Int, R> =
+            Rails.Builder<Int, R>({ v -> mapper(v) }, Schedulers.computation())
+                    .rails(rails)
+                    .ordered(orderedRails)
+                    .metrics(MetricsRegistry.getDefault(), "$name.rails")
+                    .build()
+
     private fun compute(v: Int) {
         try {
             Log.i(TAG, "compute integer v: " + v)
@@ -34,6 +76,14 @@ class BackPressure : BaseRxObs() {
 
     }
 
+    /**
+     * What compute() stands for, done for a whole batch at once. It runs on the pool batchCompute
+     * creates for each subscription, so the parallelStream() is split over that pool's threads
+     * rather than the common pool.
+     */
+    private fun computeBatch(batch: List<Int>): Long =
+            batch.parallelStream().mapToLong { it.toLong() * it }.sum()
+
     /**
      * I tried but it is not producing the MissingBackpressureException.
      * Why? I think there are multiple reasons. 1) In the 2.x Observable doesn't do backpressure at all.
@@ -75,6 +125,28 @@ class BackPressure : BaseRxObs() {
         Thread.sleep(10000)
     }
 
+    /**
+     * The same producer as causingBackPressureExOnRx2() but it pushes into an IngestionGateway
+     * instead of a PublishProcessor. The loop never blocks and never causes a
+     * MissingBackpressureException: once the 1024 slots are full the oldest values are dropped,
+     * and the counters tell how far off the ring size was. OverflowPolicy.spillToDisk() keeps
+     * everything instead, in files under a directory such as the cache dir.
+     */
+    fun usingIngestionGateway() {
+        val gateway = IngestionGateway<Int>(1024, OverflowPolicy.dropOldest<Int>(), Schedulers.computation())
+
+        disposable.add(gateway.flowable()
+                .subscribe({ compute(it) }, { it.printStackTrace() }))
+
+        for (i in 0..999999) {
+            gateway.offer(i)
+        }
+        gateway.complete()
+
+        Log.i(TAG, "accepted " + gateway.accepted() + ", dropped " + gateway.dropped()
+                + ", overflowed " + gateway.overflowed() + ", high water " + gateway.highWater())
+    }
+
     /**
      * In this function, there is no error and everything runs smoothly with small memory usage.
      * The reason for this is that many source operators can "generate" values on demand and thus
@@ -107,16 +179,58 @@ class BackPressure : BaseRxObs() {
             });
 
         Flowable takes backpressure into consideration. Observable does not.
+     *
+     * With [rails] set, compute() runs on that many rails at once; range() is still only asked for
+     * what the rails have room for.
      */
     fun understandingCoroutines() {
-        Flowable.range(1, 1000000)
-                .observeOn(Schedulers.computation())
-                .subscribe({ v -> compute(v) }, { it.printStackTrace() })
+        if (rails > 0) {
+            Flowable.range(1, 1000000)
+                    .compose(MetricsRegistry.getDefault().stage<Int>("coroutines.range"))
+                    .compose(onRails("coroutines") { v -> compute(v) })
+                    .subscribe({ }, { it.printStackTrace() })
+        } else {
+            Flowable.range(1, 1000000)
+                    .compose(MetricsRegistry.getDefault().stage<Int>("coroutines.range"))
+                    .observeOn(Schedulers.computation())
+                    .compose(MetricsRegistry.getDefault().stage<Int>("coroutines.observeOn"))
+                    .subscribe({ v -> compute(v) }, { it.printStackTrace() })
+        }
 
         Thread.sleep(10000)
     }
 
 
+    /**
+     * The same negotiation as understandingCoroutines() but the source is a paginated endpoint.
+     * listGists() only downloads the next page when the gists of the previous one have been
+     * requested, so asking for one gist at a time never loads pages nobody is looking at.
+     */
+    fun pagingGistsOnDemand() {
+        disposable.add(RestClient.getInstance()
+                .listGists("donnfelker", 10)
+                .subscribeWith(object : DisposableSubscriber<Gist>() {
+                    override fun onStart() {
+                        request(1)
+                    }
+
+                    override fun onNext(gist: Gist) {
+                        Log.i(TAG, "onNext: " + gist.files?.keys)
+                        request(1)
+                    }
+
+                    override fun onError(t: Throwable) {
+                        dispose()
+                        t.printStackTrace()
+                    }
+
+                    override fun onComplete() {
+                        dispose()
+                        Log.i(TAG, "onComplete")
+                    }
+                }))
+    }
+
     /**
      * -> Solutions to handle backpressure on the side of the observer in RxJava1:
      *
@@ -145,6 +259,11 @@ class BackPressure : BaseRxObs() {
      * source overproduces the predicted buffer size. In this case, one can use one of the following operators.
      *
      * That's why other batching or sampling techniques are also equally important.
+     *
+     * The sizes stay fixed here: PublishProcessor ignores request(), so observeOn's buffer has to
+     * be large enough for everything the loop pushes. See usingAdaptiveFlowControl() for a source
+     * that does honour requests, and usingBatchCompute() for batches that are processed on more
+     * than one core without leaving backpressure behind.
      */
     fun usingBufferToAvoidBackPressure() {
         val source = PublishProcessor.create<Int>()
@@ -166,23 +285,72 @@ class BackPressure : BaseRxObs() {
      * source and the downstream operator. Being unbounded means as long as the JVM doesn't run out
      * of memory, it can handle almost any amount coming from a bursty source.
      *
-     * In this example, the observeOn goes with a very low buffer size yet there is no
-     * MissingBackpressureException as onBackpressureBuffer soaks up all the 1 million values and
-     * hands over small batches of it to observeOn.
+     * In this example, the observeOn requests small batches (the adaptive one starts at 4) yet there
+     * is no MissingBackpressureException as onBackpressureBuffer soaks up all the 1 million values
+     * and hands over small batches of it to observeOn.
      *
      * range() supports backpressure
      *
      * There are 4 additional overloads of onBackpressureBuffer. onBackpressureBuffer(int capacity)
      * but the relevance of this operator is decreasing as more and more operators now allow setting
      * their buffer sizes.
+     *
+     * "As long as the JVM doesn't run out of memory" is the catch: every buffered Integer costs a
+     * box plus a queue slot, around 20 bytes, so a burst of 10 million holds ~200MB of heap. See
+     * usingSpillingBuffer() for a buffer that moves the overflow to disk instead.
+     *
+     * With [rails] set, the values are handed to several rails instead of the adaptive observeOn.
      */
     fun usingOnBackPressureBuffer() {
         Flowable.range(1, 1_000_000)
                 .onBackpressureBuffer()
-                .observeOn(Schedulers.computation(), true, 8)
+                .compose(MetricsRegistry.getDefault().stage<Int>("buffer.onBackpressureBuffer"))
+                .compose(if (rails > 0) onRails("buffer") { it } else adaptiveObserveOn)
+                .compose(MetricsRegistry.getDefault().stage<Int>("buffer.observeOn"))
                 .subscribe({}, {it.printStackTrace()})
     }
 
+    /**
+     * Instead of handing every value to a compute() that blocks a computation thread, values are
+     * collected into batches of up to 1024, or whatever arrived within 50ms, and each batch is
+     * processed on a pool of its own, shut down with the subscription on clear(). Several batches
+     * run at the same time on different cores, the sums still come out in order, and range() is
+     * only asked for more once a sum was consumed.
+     */
+    fun usingBatchCompute() {
+        disposable.add(Flowable.range(1, 1_000_000)
+                .compose(batchCompute)
+                .subscribe({ sum -> Log.i(TAG, "batch sum " + sum) }, { it.printStackTrace() }))
+    }
+
+    /**
+     * Same burst as usingOnBackPressureBuffer() but only the first 1024 values stay in memory; the
+     * rest is serialized into memory-mapped segment files under [directory] (e.g. the cache dir)
+     * and read back, in order, as observeOn asks for more. Segments are deleted once consumed, and
+     * all of them when the sequence terminates or is disposed.
+     */
+    fun usingSpillingBuffer(directory: File) {
+        disposable.add(Flowable.range(1, 1_000_000)
+                .compose(SpillingBackpressureBuffer(1024, directory, 1024 * 1024, Serializer.INTEGER))
+                .compose(adaptiveObserveOn)
+                .subscribe({ }, { it.printStackTrace() }))
+    }
+
+    /**
+     * Instead of picking a prefetch like 8 or 1024 up front, AdaptiveObserveOn measures how long
+     * the consumer takes per item and how full its queue gets, and adjusts how much it requests
+     * from upstream while running. A slow compute() ends up with a short queue (little memory,
+     * little latency), a fast consumer with large batches (few request round trips).
+     */
+    fun usingAdaptiveFlowControl() {
+        disposable.add(Flowable.range(1, 1_000_000)
+                .compose(adaptiveObserveOn)
+                .subscribe({ }, { it.printStackTrace() },
+                        { Log.i(TAG, "batch " + adaptiveObserveOn.batch() + ", bound "
+                                + adaptiveObserveOn.bound() + ", service time "
+                                + adaptiveObserveOn.serviceNanos() + "ns") }))
+    }
+
     /**
      * This overload is actually more useful as it let's one define what to do in case the capacity
      * has been reached.
@@ -238,6 +406,14 @@ class BackPressure : BaseRxObs() {
                 .subscribeWith(intDisposableSubscriber()))
     }
 
+    /**
+     * Comparing the stages before and after observeOn shows where the time goes: items/s, the gap
+     * between two onNext and how long subscriptions lived.
+     */
+    fun dumpMetrics() {
+        Log.i(TAG, MetricsRegistry.getDefault().dump())
+    }
+
     var counter = 0
     fun computeValue() = ++counter
 
@@ -57,14 +57,14 @@ class SchedulingThreading : BaseRxObs() {
 
         Log.i(TAG, "Main: " + Thread.currentThread().id)
 
-        Observable.create<Int> { o ->
+        disposable.add(Observable.create<Int> { o ->
             println("Created on " + Thread.currentThread().id)
             o.onNext(1)
             o.onNext(2)
             o.onComplete()
         }
                 .subscribeOn(Schedulers.newThread())
-                .subscribe({ i -> Log.i(TAG, "Received " + i + " on " + Thread.currentThread().id) })
+                .subscribe({ i -> Log.i(TAG, "Received " + i + " on " + Thread.currentThread().id) }))
 
         Log.i(TAG, "Finished main: " + Thread.currentThread().id)
     }
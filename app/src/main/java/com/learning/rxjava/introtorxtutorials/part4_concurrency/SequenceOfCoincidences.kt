@@ -3,6 +3,7 @@ package com.learning.rxjava.introtorxtutorials.part4_concurrency
 import android.util.Log
 import com.learning.rxjava.introtorxtutorials.BaseRxObs
 import com.learning.rxjava.introtorxtutorials.DisplayConsumer
+import com.learning.rxjava.rx.operators.WindowStatsOperator
 import io.reactivex.Observable
 import io.reactivex.ObservableSource
 import io.reactivex.Observer
@@ -10,6 +11,7 @@ import io.reactivex.disposables.Disposable
 import io.reactivex.functions.BiFunction
 import io.reactivex.functions.Consumer
 import io.reactivex.functions.Function
+import io.reactivex.schedulers.Schedulers
 import java.util.concurrent.TimeUnit
 
 /**
@@ -46,7 +48,30 @@ class SequenceOfCoincidences : BaseRxObs() {
                 .take(5)
                 .window(250, 100, TimeUnit.MILLISECONDS)
                 .flatMap { it -> it.toList().toObservable() }
-                .subscribe { DisplayConsumer("windowByTime")})
+                .subscribe(DisplayConsumer("windowByTime")))
+    }
+
+    /**
+     * When the windows are only there to compute aggregates, WindowStatsOperator keeps them
+     * incrementally instead of collecting every window into a list. The emitted WindowStats is
+     * reused; DisplayConsumer logs it as it is when it arrives, not when the log is written.
+     */
+    fun windowStatsByCount() {
+        disposable.add(
+                Observable.range(0, 5)
+                        .lift(WindowStatsOperator.count<Int>(3, 0.5))
+                        .subscribe(DisplayConsumer("windowStatsByCount"))
+        )
+    }
+
+    fun windowStatsByTime() {
+        disposable.add(
+                Observable.interval(100, TimeUnit.MILLISECONDS)
+                        .take(5)
+                        .lift(WindowStatsOperator.time<Long>(250, TimeUnit.MILLISECONDS, 5, 0.5,
+                                Schedulers.computation()))
+                        .subscribe(DisplayConsumer("windowStatsByTime"))
+        )
     }
 
     /**
@@ -4,5 +4,6 @@ package com.learning.rxjava.models;
  * Created by wahibulhaq on 17/04/16.
  */
 public class GistFile {
-    public String size;
+    public String filename;
+    public long size;
 }
@@ -0,0 +1,56 @@
+package com.learning.rxjava.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads only the fields GistFile declares. Everything else (including the possibly huge
+ * "content") goes through skipValue(), which moves past it without building a String.
+ */
+final class GistFileTypeAdapter extends TypeAdapter<GistFile> {
+
+    @Override
+    public void write(JsonWriter out, GistFile file) throws IOException {
+        if (file == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("filename").value(file.filename);
+        out.name("size").value(file.size);
+        out.endObject();
+    }
+
+    @Override
+    public GistFile read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        GistFile file = new GistFile();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "filename":
+                    file.filename = in.nextString();
+                    break;
+                case "size":
+                    file.size = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return file;
+    }
+}
@@ -0,0 +1,33 @@
+package com.learning.rxjava.models;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+
+/**
+ * Single Gson instance for the models in this package. Gson is thread-safe and caches its
+ * adapters, so creating one per request only throws that cache away.
+ */
+public final class GistJson {
+
+    private static final GistFileTypeAdapter FILE_ADAPTER = new GistFileTypeAdapter();
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(GistFile.class, FILE_ADAPTER)
+            .registerTypeAdapter(Gist.class, new GistTypeAdapter(FILE_ADAPTER))
+            .create();
+
+    private GistJson() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Adapter used by the streaming decoder to read one entry of "files".
+     */
+    public static TypeAdapter<GistFile> fileAdapter() {
+        return FILE_ADAPTER;
+    }
+}
@@ -0,0 +1,115 @@
+package com.learning.rxjava.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hand-written counterpart of what Gson's ReflectiveTypeAdapterFactory does for Gist: no
+ * reflection, no intermediate Map adapters, and the top level fields we don't model (urls,
+ * history, forks, ...) are skipped instead of parsed.
+ */
+final class GistTypeAdapter extends TypeAdapter<Gist> {
+
+    private final GistFileTypeAdapter fileAdapter;
+
+    GistTypeAdapter(GistFileTypeAdapter fileAdapter) {
+        this.fileAdapter = fileAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Gist gist) throws IOException {
+        if (gist == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (gist.owner != null) {
+            out.name("owner").beginObject();
+            for (Map.Entry<String, String> entry : gist.owner.entrySet()) {
+                out.name(entry.getKey()).value(entry.getValue());
+            }
+            out.endObject();
+        }
+        if (gist.files != null) {
+            out.name("files").beginObject();
+            for (Map.Entry<String, GistFile> entry : gist.files.entrySet()) {
+                out.name(entry.getKey());
+                fileAdapter.write(out, entry.getValue());
+            }
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Gist read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Gist gist = new Gist();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("owner".equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                gist.owner = readOwner(in);
+            } else if ("files".equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                gist.files = readFiles(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return gist;
+    }
+
+    /**
+     * Owner values are numbers, booleans and strings in the API, they all end up as String just
+     * like Gson's own String adapter would do. Nested objects are skipped.
+     */
+    private static Map<String, String> readOwner(JsonReader in) throws IOException {
+        Map<String, String> owner = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (in.peek()) {
+                case STRING:
+                case NUMBER:
+                    owner.put(name, in.nextString());
+                    break;
+                case BOOLEAN:
+                    owner.put(name, Boolean.toString(in.nextBoolean()));
+                    break;
+                case NULL:
+                    in.nextNull();
+                    owner.put(name, null);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return owner;
+    }
+
+    private Map<String, GistFile> readFiles(JsonReader in) throws IOException {
+        Map<String, GistFile> files = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            GistFile file = fileAdapter.read(in);
+            if (file != null && file.filename == null) {
+                file.filename = key;
+            }
+            files.put(key, file);
+        }
+        in.endObject();
+        return files;
+    }
+}
@@ -0,0 +1,56 @@
+package com.learning.rxjava.network;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Counts how each response was produced, based on what OkHttp's cache did with the call:
+ *
+ * hit: served from the disk cache without touching the network.
+ * revalidation: the cached copy was stale, a conditional request (If-None-Match with the stored
+ * ETag) came back 304 and the cached body was used.
+ * miss: the full body came from the network, including a conditional request that came back
+ * 200 with changed content (OkHttp still attaches the cacheResponse then).
+ */
+public final class CacheStats implements Interceptor {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (response.networkResponse() == null) {
+            if (response.cacheResponse() != null) {
+                hits.incrementAndGet();
+            }
+        } else if (response.networkResponse().code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            revalidations.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return response;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long revalidations() {
+        return revalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits + ", misses=" + misses + ", revalidations=" + revalidations;
+    }
+}
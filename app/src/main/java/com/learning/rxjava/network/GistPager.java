@@ -0,0 +1,55 @@
+package com.learning.rxjava.network;
+
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistJson;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Turns GitHub's paginated "list gists for user" endpoint into a Flowable<Gist>.
+ *
+ * This is the request(n) negotiation from BackPressure.understandingCoroutines() applied to the
+ * network: Flowable.generate() is only called when downstream requested another item, and a page
+ * is only downloaded when the previous one is used up and one more gist was asked for. So nothing
+ * is buffered beyond the page currently being consumed.
+ */
+final class GistPager {
+
+    private GistPager() {
+    }
+
+    static Flowable<Gist> create(final RestClient client, final String user, final int perPage) {
+        return Flowable.generate(
+                () -> new State(),
+                (State state, Emitter<Gist> emitter) -> {
+                    while (!state.current.hasNext()) {
+                        if (state.lastPage) {
+                            emitter.onComplete();
+                            return state;
+                        }
+                        Gist[] page = client.execute(
+                                client.userGistsRequest(user, ++state.page, perPage),
+                                body -> GistJson.gson().fromJson(body.charStream(), Gist[].class));
+                        state.lastPage = page == null || page.length < perPage;
+                        state.current = page == null
+                                ? Collections.<Gist>emptyIterator() : Arrays.asList(page).iterator();
+                    }
+                    emitter.onNext(state.current.next());
+                    return state;
+                })
+                // requests (and therefore the blocking page fetches) happen on an io thread
+                .subscribeOn(Schedulers.io());
+    }
+
+    private static final class State {
+        int page;
+        boolean lastPage;
+        Iterator<Gist> current = Collections.emptyIterator();
+    }
+}
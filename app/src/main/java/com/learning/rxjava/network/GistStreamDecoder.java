@@ -0,0 +1,106 @@
+package com.learning.rxjava.network;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.learning.rxjava.models.GistFile;
+import com.learning.rxjava.models.GistJson;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Consumer;
+
+/**
+ * Decodes a Gist document with a JsonReader and emits every entry of "files" as soon as it has
+ * been read, instead of materializing the whole Gist first.
+ *
+ * Flowable.generate() is used so parsing is driven by downstream requests: the reader only moves
+ * forward when a GistFile was asked for, which keeps memory flat no matter how many files the
+ * gist has. Fields we don't display (e.g. the file "content") are skipped with skipValue().
+ */
+public final class GistStreamDecoder {
+
+    private GistStreamDecoder() {
+    }
+
+    /**
+     * @param source       the raw JSON, closed when the Flowable terminates or is cancelled
+     * @param onOwnerLogin receives owner.login when the parser gets to it. GitHub sends "owner"
+     *                     after "files", so this is usually called right before completion.
+     */
+    public static Flowable<GistFile> decode(Reader source, Consumer<String> onOwnerLogin) {
+        return Flowable.generate(
+                () -> {
+                    State state = new State(new JsonReader(source), onOwnerLogin);
+                    state.reader.beginObject();
+                    return state;
+                },
+                GistStreamDecoder::next,
+                state -> state.reader.close());
+    }
+
+    private static State next(State state, Emitter<GistFile> emitter) throws Exception {
+        JsonReader reader = state.reader;
+        while (true) {
+            if (state.inFiles) {
+                if (reader.hasNext()) {
+                    emitter.onNext(readFile(reader, reader.nextName()));
+                    return state;
+                }
+                reader.endObject();
+                state.inFiles = false;
+            } else if (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("files".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    state.inFiles = true;
+                } else if ("owner".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    readOwner(reader, state.onOwnerLogin);
+                } else {
+                    reader.skipValue();
+                }
+            } else {
+                reader.endObject();
+                emitter.onComplete();
+                return state;
+            }
+        }
+    }
+
+    private static GistFile readFile(JsonReader reader, String key) throws IOException {
+        GistFile file = GistJson.fileAdapter().read(reader);
+        if (file == null) {
+            file = new GistFile();
+        }
+        if (file.filename == null) {
+            file.filename = key;
+        }
+        return file;
+    }
+
+    private static void readOwner(JsonReader reader, Consumer<String> onOwnerLogin)
+            throws Exception {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("login".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                onOwnerLogin.accept(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static final class State {
+        final JsonReader reader;
+        final Consumer<String> onOwnerLogin;
+        boolean inFiles;
+
+        State(JsonReader reader, Consumer<String> onOwnerLogin) {
+            this.reader = reader;
+            this.onOwnerLogin = onOwnerLogin;
+        }
+    }
+}
@@ -1,4 +1,390 @@
 package com.learning.rxjava.network;
 
-public class RestClient {
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistJson;
+
+import org.reactivestreams.Publisher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Process-wide HTTP client. Every request goes through one OkHttpClient, so all of them share a
+ * single ConnectionPool (sockets are kept alive and reused) and a single Dispatcher (the number of
+ * threads doing network work is capped by maxRequests instead of growing with every subscriber).
+ *
+ * Calls are made with enqueue() so the blocking work happens on the Dispatcher's threads, which
+ * means callers don't need subscribeOn(Schedulers.io()) for the network part.
+ */
+public final class RestClient {
+
+    private static final String API_URL = "https://api.github.com/";
+
+    private static final int DEFAULT_BATCH_CONCURRENCY = 4;
+    private static final int BATCH_MAX_RETRIES = 3;
+    private static final long BATCH_RETRY_DELAY_MILLIS = 500;
+
+    private static volatile RestClient instance;
+
+    private final OkHttpClient client;
+
+    private final CacheStats cacheStats;
+
+    private final TransferStats transferStats = new TransferStats();
+
+    private final String apiUrl;
+
+    RestClient(OkHttpClient client, CacheStats cacheStats, String apiUrl) {
+        this.client = client;
+        this.cacheStats = cacheStats;
+        this.apiUrl = apiUrl;
+    }
+
+    public static RestClient getInstance() {
+        RestClient result = instance;
+        if (result == null) {
+            synchronized (RestClient.class) {
+                result = instance;
+                if (result == null) {
+                    instance = result = new Builder().build();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the default limits and enables the disk cache. Has to be called before the first
+     * {@link #getInstance()}, e.g. from Application.onCreate(), otherwise requests already made
+     * would use another pool.
+     */
+    public static void init(Builder builder) {
+        synchronized (RestClient.class) {
+            if (instance != null) {
+                throw new IllegalStateException("RestClient is already initialized");
+            }
+            instance = builder.build();
+        }
+    }
+
+    /**
+     * Parses a successful response body. It is called on a Dispatcher thread and the body is
+     * closed afterwards, so it must be fully consumed here.
+     */
+    public interface ResponseParser<T> {
+        T parse(ResponseBody body) throws IOException;
+    }
+
+    /**
+     * Turns an open response body into a stream of items. The body stays open until the returned
+     * Flowable terminates or is cancelled.
+     */
+    public interface StreamParser<T> {
+        Flowable<T> parse(ResponseBody body) throws IOException;
+    }
+
+    public OkHttpClient okHttpClient() {
+        return client;
+    }
+
+    public <T> Single<T> single(Request request, ResponseParser<T> parser) {
+        return enqueue(request, response -> parser.parse(response.body()));
+    }
+
+    /**
+     * Asks for a gzip encoded body and leaves the decompression to us instead of OkHttp: the
+     * compressed bytes are read on the Dispatcher thread, then inflating and parsing run on
+     * Schedulers.computation(). Both sizes are added to {@link #transferStats()}.
+     *
+     * Only gzip is negotiated, OkHttp 3.1 has no Brotli decoder. A server answering with
+     * identity encoding works just the same.
+     */
+    public <T> Single<T> compressed(Request request, final ResponseParser<T> parser) {
+        Request gzipRequest = request.newBuilder()
+                .header("Accept-Encoding", "gzip")
+                .build();
+
+        return enqueue(gzipRequest, response -> {
+            byte[] wire = response.body().bytes();
+            transferStats.addWireBytes(wire.length);
+            return new EncodedBody(wire, response.header("Content-Encoding"),
+                    response.body().contentType());
+        })
+                .observeOn(Schedulers.computation())
+                .map(encoded -> {
+                    Source source = new Buffer().write(encoded.bytes);
+                    if ("gzip".equalsIgnoreCase(encoded.encoding)) {
+                        source = new GzipSource(source);
+                    }
+                    TransferStats.CountingSource decoded = new TransferStats.CountingSource(source);
+                    try (ResponseBody body = ResponseBody.create(encoded.contentType, -1,
+                            Okio.buffer(decoded))) {
+                        return parser.parse(body);
+                    } finally {
+                        transferStats.addDecodedBytes(decoded.count());
+                    }
+                });
+    }
+
+    private interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    private <T> Single<T> enqueue(Request request, ResponseHandler<T> handler) {
+        return Single.create(emitter -> {
+            Call call = client.newCall(request);
+            emitter.setCancellable(call::cancel);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    emitter.tryOnError(e); // a cancelled call also ends up here
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (ResponseBody body = response.body()) {
+                        if (!response.isSuccessful()) {
+                            emitter.tryOnError(new IOException("Unexpected response " + response.code()
+                                    + " for " + request.url()));
+                            return;
+                        }
+                        emitter.onSuccess(handler.handle(response));
+                    } catch (Exception e) {
+                        emitter.tryOnError(e);
+                    }
+                }
+            });
+        });
+    }
+
+    public <T> Flowable<T> flowable(Request request, ResponseParser<T> parser) {
+        return single(request, parser).toFlowable();
+    }
+
+    /**
+     * Unlike {@link #single(Request, ResponseParser)} the call is executed on the subscribing
+     * thread, because the body is read lazily while downstream requests items. Use it with
+     * subscribeOn(Schedulers.io()).
+     */
+    public <T> Flowable<T> stream(Request request, StreamParser<T> parser) {
+        return Flowable.using(
+                () -> {
+                    Response response = client.newCall(request).execute();
+                    if (!response.isSuccessful()) {
+                        response.body().close();
+                        throw new IOException("Unexpected response " + response.code()
+                                + " for " + request.url());
+                    }
+                    return response.body();
+                },
+                parser::parse,
+                ResponseBody::close);
+    }
+
+    public TransferStats transferStats() {
+        return transferStats;
+    }
+
+    public CacheStats cacheStats() {
+        return cacheStats;
+    }
+
+    public Request gistRequest(String id) {
+        return new Request.Builder()
+                .url(apiUrl + "gists/" + id)
+                .build();
+    }
+
+    public Request userGistsRequest(String user, int page, int perPage) {
+        return new Request.Builder()
+                .url(apiUrl + "users/" + user + "/gists?page=" + page + "&per_page=" + perPage)
+                .build();
+    }
+
+    /**
+     * All gists of a user, one page at a time. See {@link GistPager}.
+     */
+    public Flowable<Gist> listGists(String user, int perPage) {
+        return GistPager.create(this, user, perPage);
+    }
+
+    public Flowable<Gist> fetchGists(Flowable<String> ids) {
+        return fetchGists(ids, DEFAULT_BATCH_CONCURRENCY, false);
+    }
+
+    /**
+     * Fetches many gists with at most maxConcurrency calls in flight. Each call blocks one
+     * Schedulers.io() thread, so the bound is enforced here rather than by the Dispatcher's per host
+     * limit. A failing id is retried on its own with exponential backoff without affecting the
+     * others, only when its retries are exhausted the whole Flowable fails.
+     *
+     * @param keepOrder emit in the order of ids (concatMapEager, still fetching concurrently)
+     *                  instead of in completion order (flatMap)
+     */
+    public Flowable<Gist> fetchGists(Flowable<String> ids, int maxConcurrency, boolean keepOrder) {
+        Function<String, Publisher<Gist>> fetch = id -> Single
+                .fromCallable(() -> execute(gistRequest(id),
+                        body -> GistJson.gson().fromJson(body.charStream(), Gist.class)))
+                .subscribeOn(Schedulers.io())
+                .retryWhen(retryWithBackoff(BATCH_MAX_RETRIES, BATCH_RETRY_DELAY_MILLIS))
+                .toFlowable();
+
+        return keepOrder
+                ? ids.concatMapEager(fetch, maxConcurrency, 1)
+                : ids.flatMap(fetch, maxConcurrency);
+    }
+
+    <T> T execute(Request request, ResponseParser<T> parser) throws IOException {
+        Response response = client.newCall(request).execute();
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response " + response.code()
+                        + " for " + request.url());
+            }
+            return parser.parse(body);
+        }
+    }
+
+    /**
+     * Waits initialDelay, 2 * initialDelay, 4 * initialDelay... between attempts and gives up
+     * with the last error after maxRetries.
+     */
+    static Function<Flowable<Throwable>, Publisher<?>> retryWithBackoff(final int maxRetries,
+                                                                       final long initialDelayMillis) {
+        return errors -> errors
+                .zipWith(Flowable.range(1, maxRetries + 1), (BiFunction<Throwable, Integer, Integer>)
+                        (error, attempt) -> {
+                            if (attempt > maxRetries) {
+                                throw error instanceof Exception
+                                        ? (Exception) error : new RuntimeException(error);
+                            }
+                            return attempt;
+                        })
+                .flatMap(attempt -> Flowable.timer(initialDelayMillis << (attempt - 1),
+                        TimeUnit.MILLISECONDS));
+    }
+
+    public int connectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    public int idleConnectionCount() {
+        return client.connectionPool().idleConnectionCount();
+    }
+
+    private static final class EncodedBody {
+        final byte[] bytes;
+        final String encoding;
+        final MediaType contentType;
+
+        EncodedBody(byte[] bytes, String encoding, MediaType contentType) {
+            this.bytes = bytes;
+            this.encoding = encoding;
+            this.contentType = contentType;
+        }
+    }
+
+    public static final class Builder {
+        private int maxIdleConnections = 5;
+        private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+        private int maxRequests = 16;
+        private int maxRequestsPerHost = 5;
+        private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+        private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(20);
+        private File cacheDirectory;
+        private long cacheMaxSize;
+        private String apiUrl = API_URL;
+
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        public Builder keepAlive(long duration, TimeUnit unit) {
+            this.keepAliveMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Bounded disk cache, e.g. new File(context.getCacheDir(), "http"). Responses carrying an
+         * ETag are revalidated with If-None-Match once stale, so an unchanged resource costs a
+         * 304 instead of the whole body.
+         */
+        public Builder cache(File directory, long maxSizeBytes) {
+            this.cacheDirectory = directory;
+            this.cacheMaxSize = maxSizeBytes;
+            return this;
+        }
+
+        /**
+         * Base of the GitHub API requests, e.g. a local stub server in tests and benchmarks.
+         */
+        public Builder apiUrl(String apiUrl) {
+            this.apiUrl = apiUrl;
+            return this;
+        }
+
+        OkHttpClient.Builder newOkHttpBuilder() {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+            return new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis,
+                            TimeUnit.MILLISECONDS))
+                    .dispatcher(dispatcher)
+                    .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        public RestClient build() {
+            CacheStats cacheStats = new CacheStats();
+            OkHttpClient.Builder builder = newOkHttpBuilder().addInterceptor(cacheStats);
+            if (cacheDirectory != null) {
+                builder.cache(new Cache(cacheDirectory, cacheMaxSize));
+            }
+            return new RestClient(builder.build(), cacheStats, apiUrl);
+        }
+    }
 }
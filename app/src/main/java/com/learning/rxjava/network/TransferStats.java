@@ -0,0 +1,60 @@
+package com.learning.rxjava.network;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Source;
+
+/**
+ * Bytes received on the wire versus bytes after decompression, for the calls made through
+ * {@link RestClient#compressed(okhttp3.Request, RestClient.ResponseParser)}.
+ */
+public final class TransferStats {
+
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    void addWireBytes(long bytes) {
+        wireBytes.addAndGet(bytes);
+    }
+
+    void addDecodedBytes(long bytes) {
+        decodedBytes.addAndGet(bytes);
+    }
+
+    public long wireBytes() {
+        return wireBytes.get();
+    }
+
+    public long decodedBytes() {
+        return decodedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "wire=" + wireBytes + " bytes, decoded=" + decodedBytes + " bytes";
+    }
+
+    static final class CountingSource extends ForwardingSource {
+        private long count;
+
+        CountingSource(Source delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.learning.rxjava.repository;
+
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps every parsed Gist in a small binary file (DataOutputStream) so the app has something to
+ * show on a cold start or without network. Reading it back is a lot cheaper than parsing the
+ * JSON again, as only the fields of the models are stored.
+ *
+ * Files are written to a temporary file first and then renamed, so a crash never leaves a half
+ * written gist behind. Every write gets its own temporary file: store() runs on Schedulers.io(),
+ * so two refreshes of the same gist can write at once, and the last rename wins.
+ */
+public class GistDiskStore {
+
+    private static final int VERSION = 1;
+
+    private final File directory;
+
+    public GistDiskStore(File directory) {
+        this.directory = directory;
+    }
+
+    public boolean contains(String id) {
+        return file(id).exists();
+    }
+
+    /**
+     * @return the stored gist, or null if there is none or it can't be read
+     */
+    public Gist read(String id) {
+        File file = file(id);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            return decode(in);
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    public void write(String id, Gist gist) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+        File tmp = File.createTempFile("gist-" + id + "-", ".tmp", directory);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(encode(gist));
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file(id))) {
+            tmp.delete();
+            throw new IOException("Can't store gist " + id);
+        }
+    }
+
+    /**
+     * Two gists have the same content when they encode to the same bytes.
+     */
+    public static boolean sameContent(Gist a, Gist b) throws IOException {
+        return a == b || Arrays.equals(encode(a), encode(b));
+    }
+
+    static byte[] encode(Gist gist) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VERSION);
+
+        Map<String, String> owner = gist.owner;
+        out.writeInt(owner == null ? -1 : owner.size());
+        if (owner != null) {
+            for (Map.Entry<String, String> entry : owner.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+
+        Map<String, GistFile> files = gist.files;
+        out.writeInt(files == null ? -1 : files.size());
+        if (files != null) {
+            for (Map.Entry<String, GistFile> entry : files.entrySet()) {
+                writeString(out, entry.getKey());
+                GistFile file = entry.getValue();
+                out.writeBoolean(file != null);
+                if (file != null) {
+                    writeString(out, file.filename);
+                    out.writeLong(file.size);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Gist decode(DataInputStream in) throws IOException {
+        if (in.readInt() != VERSION) {
+            throw new IOException("Unknown gist format");
+        }
+        Gist gist = new Gist();
+
+        int owners = in.readInt();
+        if (owners >= 0) {
+            gist.owner = new LinkedHashMap<>();
+            for (int i = 0; i < owners; i++) {
+                gist.owner.put(readString(in), readString(in));
+            }
+        }
+
+        int files = in.readInt();
+        if (files >= 0) {
+            gist.files = new LinkedHashMap<>();
+            for (int i = 0; i < files; i++) {
+                String key = readString(in);
+                GistFile file = null;
+                if (in.readBoolean()) {
+                    file = new GistFile();
+                    file.filename = readString(in);
+                    file.size = in.readLong();
+                }
+                gist.files.put(key, file);
+            }
+        }
+        return gist;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private File file(String id) {
+        return new File(directory, id + ".gist");
+    }
+}
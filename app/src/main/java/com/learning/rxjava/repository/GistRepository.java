@@ -0,0 +1,243 @@
+package com.learning.rxjava.repository;
+
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistFile;
+import com.learning.rxjava.models.GistJson;
+import com.learning.rxjava.network.GistStreamDecoder;
+import com.learning.rxjava.network.RestClient;
+import com.learning.rxjava.rx.logging.AsyncLogSink;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Sits in front of the network for parsed Gists.
+ *
+ * 1) A bounded LRU memory cache with a time to live per entry, so a rotation or a repeat visit
+ * within the TTL costs neither a request nor parsing.
+ * 2) Request coalescing: while a gist is being fetched, every other subscriber asking for the same
+ * id gets the same in-flight Single instead of starting its own call.
+ * 3) An optional {@link GistDiskStore} for offline use and instant cold starts, see
+ * {@link #observeGist(String)}.
+ */
+public class GistRepository {
+
+    private static final String TAG = GistRepository.class.getSimpleName();
+    private static final int MAX_ENTRIES = 32;
+    private static final long TTL_MINUTES = 5;
+
+    private static volatile GistRepository instance;
+
+    private final Function<String, Single<Gist>> fetcher;
+    private final GistDiskStore diskStore;
+    private final Scheduler clock;
+    private final long ttlMillis;
+
+    // access-ordered LinkedHashMap = LRU, guarded by itself
+    private final LinkedHashMap<String, Entry> cache;
+    private final Map<String, Single<Gist>> inFlight = new HashMap<>();
+
+    public GistRepository(Function<String, Single<Gist>> fetcher, final int maxEntries,
+                          long ttl, TimeUnit unit, Scheduler clock) {
+        this(fetcher, null, maxEntries, ttl, unit, clock);
+    }
+
+    public GistRepository(Function<String, Single<Gist>> fetcher, GistDiskStore diskStore,
+                          final int maxEntries, long ttl, TimeUnit unit, Scheduler clock) {
+        this.fetcher = fetcher;
+        this.diskStore = diskStore;
+        this.clock = clock;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static GistRepository getInstance() {
+        GistRepository result = instance;
+        if (result == null) {
+            synchronized (GistRepository.class) {
+                result = instance;
+                if (result == null) {
+                    instance = result = new GistRepository(GistRepository::fetchFromNetwork,
+                            MAX_ENTRIES, TTL_MINUTES, TimeUnit.MINUTES, Schedulers.computation());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Enables the disk store. Has to be called before the first {@link #getInstance()}, e.g. from
+     * Application.onCreate().
+     */
+    public static void init(GistDiskStore diskStore) {
+        synchronized (GistRepository.class) {
+            if (instance != null) {
+                throw new IllegalStateException("GistRepository is already initialized");
+            }
+            instance = new GistRepository(GistRepository::fetchFromNetwork, diskStore,
+                    MAX_ENTRIES, TTL_MINUTES, TimeUnit.MINUTES, Schedulers.computation());
+        }
+    }
+
+    private static Single<Gist> fetchFromNetwork(String id) {
+        RestClient client = RestClient.getInstance();
+        return client.compressed(client.gistRequest(id),
+                body -> GistJson.gson().fromJson(body.charStream(), Gist.class));
+    }
+
+    public Single<Gist> getGist(final String id) {
+        return Single.defer(() -> {
+            Gist cached = getCached(id);
+            if (cached != null) {
+                return Single.just(cached);
+            }
+            return fetch(id);
+        });
+    }
+
+    /**
+     * Stale-while-revalidate. A gist still fresh in memory is emitted alone. Otherwise the stored
+     * copy (if any) is emitted right away, the network is asked in the background and the result
+     * is emitted only if its content differs from what was already shown. Without network the
+     * stored copy is all there is, a refresh error only reaches the subscriber if nothing was
+     * stored.
+     */
+    public Observable<Gist> observeGist(final String id) {
+        return Observable.defer(() -> {
+            Gist fresh = getCached(id);
+            if (fresh != null) {
+                return Observable.just(fresh);
+            }
+
+            final AtomicBoolean hadStoredCopy = new AtomicBoolean();
+            Observable<Gist> stored = Maybe
+                    .fromCallable(() -> diskStore != null ? diskStore.read(id) : null)
+                    .subscribeOn(Schedulers.io())
+                    .doOnSuccess(gist -> hadStoredCopy.set(true))
+                    .toObservable();
+
+            Observable<Gist> refreshed = Single.defer(() -> fetch(id))
+                    .toObservable()
+                    .onErrorResumeNext((Function<Throwable, ObservableSource<Gist>>) e ->
+                            hadStoredCopy.get() ? Observable.<Gist>empty() : Observable.<Gist>error(e));
+
+            return Observable.concat(stored, refreshed)
+                    .distinctUntilChanged(GistDiskStore::sameContent);
+        });
+    }
+
+    /**
+     * Looks at the disk store, so call it on an io thread.
+     *
+     * @return true if the gist can be shown without going to the network
+     */
+    public boolean hasLocalCopy(String id) {
+        return getCached(id) != null || (diskStore != null && diskStore.contains(id));
+    }
+
+    private Single<Gist> fetch(final String id) throws Exception {
+        synchronized (inFlight) {
+            Single<Gist> pending = inFlight.get(id);
+            if (pending == null) {
+                pending = fetcher.apply(id)
+                        .doOnSuccess(gist -> store(id, gist))
+                        .doFinally(() -> {
+                            synchronized (inFlight) {
+                                inFlight.remove(id);
+                            }
+                        })
+                        .cache();
+                inFlight.put(id, pending);
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Streams the files of a gist with {@link GistStreamDecoder}. Nothing is stored: the decoder
+     * skips what it doesn't display, so a Gist assembled from the stream would be incomplete and
+     * never have the same content as the fetched one.
+     */
+    public Flowable<GistFile> streamGistFiles(final String id, final Consumer<String> onOwnerLogin) {
+        return Flowable.defer(() -> {
+            RestClient client = RestClient.getInstance();
+            return client.stream(client.gistRequest(id),
+                    body -> GistStreamDecoder.decode(body.charStream(), onOwnerLogin));
+        });
+    }
+
+    /**
+     * @return the gist if it is in memory and younger than the TTL, null otherwise
+     */
+    public Gist getCached(String id) {
+        synchronized (cache) {
+            Entry entry = cache.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (clock.now(TimeUnit.MILLISECONDS) - entry.storedAt > ttlMillis) {
+                cache.remove(id);
+                return null;
+            }
+            return entry.gist;
+        }
+    }
+
+    public void put(String id, Gist gist) {
+        synchronized (cache) {
+            cache.put(id, new Entry(gist, clock.now(TimeUnit.MILLISECONDS)));
+        }
+    }
+
+    /**
+     * Puts the gist in memory and writes it to the disk store on an io thread.
+     */
+    private void store(final String id, final Gist gist) {
+        put(id, gist);
+        if (diskStore != null) {
+            Schedulers.io().scheduleDirect(() -> {
+                try {
+                    diskStore.write(id, gist);
+                } catch (IOException e) {
+                    // the copy in memory is still good
+                    AsyncLogSink.getDefault().log(TAG, "Can't store gist " + id + ": ", e);
+                }
+            });
+        }
+    }
+
+    public void invalidate(String id) {
+        synchronized (cache) {
+            cache.remove(id);
+        }
+    }
+
+    private static final class Entry {
+        final Gist gist;
+        final long storedAt;
+
+        Entry(Gist gist, long storedAt) {
+            this.gist = gist;
+            this.storedAt = storedAt;
+        }
+    }
+}
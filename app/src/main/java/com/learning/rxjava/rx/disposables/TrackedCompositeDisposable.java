@@ -0,0 +1,209 @@
+package com.learning.rxjava.rx.disposables;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableContainer;
+
+/**
+ * A CompositeDisposable that remembers, for every subscription added to it, where it was added
+ * from, when, and which scope owns it.
+ *
+ * Subscriptions that terminate on their own are forgotten as the container goes. Termination is
+ * read from isDisposed(), so this relies on the observer marking itself disposed on onComplete
+ * and onError, as LambdaObserver and RecordingObserver do; a DisposableObserver or
+ * DisposableSubscriber has to call dispose() from its terminal callbacks. Whatever is still live
+ * when the scope is cleared or disposed was never going to stop by itself, typically an
+ * interval, and is handed to the {@link LeakReporter} before being disposed. Use
+ * {@link #live()} to look at them earlier.
+ *
+ * The creation site is taken from the stack trace of add(), which costs a few microseconds: fine
+ * for subscriptions, not for something done per item.
+ */
+public final class TrackedCompositeDisposable implements Disposable, DisposableContainer {
+
+    public interface LeakReporter {
+        void onLeaks(String scope, List<Tracked> leaked);
+    }
+
+    /**
+     * One live subscription.
+     */
+    public static final class Tracked {
+        private final Disposable disposable;
+        private final String scope;
+        private final StackTraceElement site;
+        private final long createdAtNanos;
+
+        Tracked(Disposable disposable, String scope, StackTraceElement site, long createdAtNanos) {
+            this.disposable = disposable;
+            this.scope = scope;
+            this.site = site;
+            this.createdAtNanos = createdAtNanos;
+        }
+
+        public String scope() {
+            return scope;
+        }
+
+        /**
+         * @return the caller of add(), null if it couldn't be found
+         */
+        public StackTraceElement site() {
+            return site;
+        }
+
+        public long age(TimeUnit unit) {
+            return unit.convert(System.nanoTime() - createdAtNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public boolean isDisposed() {
+            return disposable.isDisposed();
+        }
+
+        @Override
+        public String toString() {
+            return scope + " " + (site == null ? "<unknown>" : site.toString())
+                    + " age=" + age(TimeUnit.MILLISECONDS) + "ms";
+        }
+    }
+
+    private final String scope;
+    private final LeakReporter reporter;
+
+    // guarded by this
+    private Map<Disposable, Tracked> tracked = new IdentityHashMap<>();
+    private int pruneAt = 16;
+    private volatile boolean disposed;
+
+    public TrackedCompositeDisposable(String scope, LeakReporter reporter) {
+        this.scope = scope;
+        this.reporter = reporter;
+    }
+
+    public String scope() {
+        return scope;
+    }
+
+    @Override
+    public boolean add(Disposable d) {
+        if (!disposed) {
+            Tracked entry = new Tracked(d, scope, callSite(), System.nanoTime());
+            synchronized (this) {
+                if (!disposed) {
+                    tracked.put(d, entry);
+                    if (tracked.size() >= pruneAt) {
+                        pruneTerminated();
+                        pruneAt = Math.max(16, tracked.size() * 2);
+                    }
+                    return true;
+                }
+            }
+        }
+        d.dispose();
+        return false;
+    }
+
+    @Override
+    public boolean remove(Disposable d) {
+        if (delete(d)) {
+            d.dispose();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean delete(Disposable d) {
+        if (disposed) {
+            return false;
+        }
+        synchronized (this) {
+            return !disposed && tracked.remove(d) != null;
+        }
+    }
+
+    /**
+     * @return the subscriptions added and not yet terminated or disposed
+     */
+    public List<Tracked> live() {
+        synchronized (this) {
+            pruneTerminated();
+            return new ArrayList<>(tracked.values());
+        }
+    }
+
+    /**
+     * Reports the live subscriptions as leaks and disposes everything, the container stays usable.
+     */
+    public void clear() {
+        if (disposed) {
+            return;
+        }
+        Map<Disposable, Tracked> current;
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            current = tracked;
+            tracked = new IdentityHashMap<>();
+            pruneAt = 16;
+        }
+        disposeAll(current);
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        Map<Disposable, Tracked> current;
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            current = tracked;
+            tracked = null;
+        }
+        disposeAll(current);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void disposeAll(Map<Disposable, Tracked> entries) {
+        List<Tracked> leaked = new ArrayList<>();
+        for (Tracked entry : entries.values()) {
+            if (!entry.isDisposed()) {
+                leaked.add(entry);
+            }
+        }
+        if (!leaked.isEmpty()) {
+            reporter.onLeaks(scope, leaked);
+        }
+        for (Disposable d : entries.keySet()) {
+            d.dispose();
+        }
+    }
+
+    private void pruneTerminated() {
+        tracked.values().removeIf(Tracked::isDisposed);
+    }
+
+    private static StackTraceElement callSite() {
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        for (StackTraceElement element : stack) {
+            if (!element.getClassName().equals(TrackedCompositeDisposable.class.getName())) {
+                return element;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.learning.rxjava.rx.logging;
+
+import android.util.Log;
+
+public final class AndroidLogBackend implements LogBackend {
+
+    @Override
+    public void write(String tag, String message) {
+        Log.i(tag, message);
+    }
+
+    @Override
+    public void flush() {
+    }
+}
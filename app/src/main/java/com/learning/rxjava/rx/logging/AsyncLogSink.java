@@ -0,0 +1,184 @@
+package com.learning.rxjava.rx.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.internal.queue.MpscLinkedQueue;
+
+/**
+ * Takes log calls off the emitting threads. Producers only offer a record to a lock-free
+ * multi-producer single-consumer queue; one background thread drains it in batches and does the
+ * formatting and the actual writing. A computation worker calling log() no longer waits on the
+ * logger, which also keeps the timings these pipelines show honest.
+ *
+ * The queue is bounded: when the writer can't keep up, new records are dropped and counted in
+ * {@link #dropped()} rather than growing the heap or blocking the producer. A record the backend
+ * fails to write is counted there as well, the sink has nowhere else to report it.
+ */
+public final class AsyncLogSink {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int DEFAULT_BATCH = 256;
+
+    private static volatile AsyncLogSink defaultSink;
+
+    private final LogBackend backend;
+    private final int capacity;
+    private final int batchSize;
+
+    private final MpscLinkedQueue<Record> queue = new MpscLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicBoolean parked = new AtomicBoolean();
+    private volatile boolean shutdown;
+
+    private final Thread writer;
+
+    public AsyncLogSink(LogBackend backend, int capacity, int batchSize) {
+        this.backend = backend;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::drainLoop, "AsyncLogSink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Sink used by DisplayConsumer and BaseRxObs: android.util.Log on a device, System.out on a
+     * plain JVM.
+     */
+    public static AsyncLogSink getDefault() {
+        AsyncLogSink result = defaultSink;
+        if (result == null) {
+            synchronized (AsyncLogSink.class) {
+                result = defaultSink;
+                if (result == null) {
+                    LogBackend backend = "Dalvik".equals(System.getProperty("java.vm.name"))
+                            ? new AndroidLogBackend() : new PrintStreamBackend(System.out);
+                    defaultSink = result = new AsyncLogSink(backend, DEFAULT_CAPACITY, DEFAULT_BATCH);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void log(String tag, String message) {
+        log(tag, message, null);
+    }
+
+    /**
+     * Strings and boxed primitives are immutable, so they are queued as they are and only
+     * appended to prefix on the writer thread. Anything else could change before the writer gets
+     * to it (operators such as WindowStatsOperator reuse the object they emit), so it's turned
+     * into a String here, on the calling thread.
+     */
+    public void log(String tag, String prefix, Object value) {
+        if (shutdown) {
+            return;
+        }
+        if (value != null && !isImmutable(value)) {
+            value = String.valueOf(value);
+        }
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(new Record(tag, prefix, value));
+        if (parked.get() && parked.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Boolean || value instanceof Double || value instanceof Float
+                || value instanceof Short || value instanceof Byte || value instanceof Character;
+    }
+
+    /**
+     * @return records dropped because the queue was full or the backend failed to write them
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long written() {
+        return written.get();
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Waits until everything logged so far has been written. Meant for tests and for flushing
+     * before the process goes away.
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(writer);
+    }
+
+    private void drainLoop() {
+        while (!shutdown || pending.get() > 0) {
+            int count = 0;
+            int failed = 0;
+            Record record;
+            while (count < batchSize && (record = queue.poll()) != null) {
+                try {
+                    backend.write(record.tag, record.format());
+                } catch (RuntimeException e) {
+                    // a broken record must not kill the writer
+                    dropped.incrementAndGet();
+                    failed++;
+                }
+                pending.decrementAndGet();
+                count++;
+            }
+            if (count > 0) {
+                backend.flush();
+                written.addAndGet(count - failed);
+                continue;
+            }
+            parked.set(true);
+            if (queue.isEmpty() && !shutdown) {
+                // timed so a missed unpark costs latency, never a stuck writer
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            parked.set(false);
+        }
+    }
+
+    private static final class Record {
+        final String tag;
+        final String prefix;
+        final Object value;
+
+        Record(String tag, String prefix, Object value) {
+            this.tag = tag;
+            this.prefix = prefix;
+            this.value = value;
+        }
+
+        String format() {
+            return value == null ? prefix : prefix + value;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.learning.rxjava.rx.logging;
+
+/**
+ * Where {@link AsyncLogSink} writes to. Only ever called from the sink's writer thread.
+ */
+public interface LogBackend {
+
+    void write(String tag, String message);
+
+    /**
+     * Called after every batch.
+     */
+    void flush();
+}
@@ -0,0 +1,27 @@
+package com.learning.rxjava.rx.logging;
+
+import java.io.PrintStream;
+
+/**
+ * Plain JVM backend, used when running outside Android (e.g. unit tests).
+ */
+public final class PrintStreamBackend implements LogBackend {
+
+    private final PrintStream out;
+
+    public PrintStreamBackend(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(String tag, String message) {
+        out.print(tag);
+        out.print(": ");
+        out.println(message);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
@@ -0,0 +1,113 @@
+package com.learning.rxjava.rx.metrics;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.parallel.ParallelFlowable;
+import io.reactivex.parallel.ParallelTransformer;
+
+/**
+ * The {@link InstrumentedStage} of a ParallelFlowable: compose() it between parallel() and
+ * sequential() and every rail records into its own {@link StageMetrics}, named after the stage
+ * with the rail index appended ("name[0]", "name[1]", ...), so an idle or overloaded rail shows.
+ */
+public final class InstrumentedRails<T> implements ParallelTransformer<T, T> {
+
+    private final MetricsRegistry registry;
+    private final String name;
+
+    InstrumentedRails(MetricsRegistry registry, String name) {
+        this.registry = registry;
+        this.name = name;
+    }
+
+    public static String railName(String name, int rail) {
+        return name + "[" + rail + "]";
+    }
+
+    @Override
+    public ParallelFlowable<T> apply(final ParallelFlowable<T> upstream) {
+        return new ParallelFlowable<T>() {
+            @Override
+            public int parallelism() {
+                return upstream.parallelism();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void subscribe(Subscriber<? super T>[] subscribers) {
+                if (!validate(subscribers)) {
+                    return;
+                }
+                Subscriber<? super T>[] rails = new Subscriber[subscribers.length];
+                for (int i = 0; i < subscribers.length; i++) {
+                    rails[i] = new RailSubscriber<>(subscribers[i],
+                            new InstrumentedStage.Probe(registry.metrics(railName(name, i))));
+                }
+                upstream.subscribe(rails);
+            }
+        };
+    }
+
+    /**
+     * Does per rail what InstrumentedStage's doOn* chain does per subscription.
+     */
+    static final class RailSubscriber<T> implements FlowableSubscriber<T>, Subscription {
+
+        private final Subscriber<? super T> downstream;
+        private final InstrumentedStage.Probe probe;
+        private Subscription upstream;
+        private boolean finished;
+
+        RailSubscriber(Subscriber<? super T> downstream, InstrumentedStage.Probe probe) {
+            this.downstream = downstream;
+            this.probe = probe;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            upstream = s;
+            probe.onSubscribe();
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            probe.onNext();
+            downstream.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            probe.metrics.onError();
+            finish();
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            probe.metrics.onComplete();
+            finish();
+            downstream.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+            finish();
+        }
+
+        private synchronized void finish() {
+            if (!finished) {
+                finished = true;
+                probe.onFinally();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.learning.rxjava.rx.metrics;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+
+/**
+ * compose() this into a chain to record the events passing that point into a
+ * {@link StageMetrics}. It is a composite of doOn* operators, one state object per subscription
+ * keeps the time of the previous onNext so the gap between items can be measured.
+ */
+public final class InstrumentedStage<T> implements ObservableTransformer<T, T>,
+        FlowableTransformer<T, T> {
+
+    private final StageMetrics metrics;
+
+    InstrumentedStage(StageMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ObservableSource<T> apply(final Observable<T> upstream) {
+        return Observable.defer(() -> {
+            final Probe probe = new Probe(metrics);
+            return upstream
+                    .doOnSubscribe(d -> probe.onSubscribe())
+                    .doOnNext(t -> probe.onNext())
+                    .doOnError(e -> metrics.onError())
+                    .doOnComplete(metrics::onComplete)
+                    .doFinally(probe::onFinally);
+        });
+    }
+
+    @Override
+    public Publisher<T> apply(final Flowable<T> upstream) {
+        return Flowable.defer(() -> {
+            final Probe probe = new Probe(metrics);
+            return upstream
+                    .doOnSubscribe(s -> probe.onSubscribe())
+                    .doOnNext(t -> probe.onNext())
+                    .doOnError(e -> metrics.onError())
+                    .doOnComplete(metrics::onComplete)
+                    .doFinally(probe::onFinally);
+        });
+    }
+
+    /**
+     * Per subscription, only touched by the serialized signals of that subscription.
+     */
+    static final class Probe {
+        final StageMetrics metrics;
+        long subscribedAt;
+        long lastOnNext = -1;
+
+        Probe(StageMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        void onSubscribe() {
+            subscribedAt = System.nanoTime();
+            metrics.onSubscribe(subscribedAt);
+        }
+
+        void onNext() {
+            long now = System.nanoTime();
+            metrics.onNext(lastOnNext < 0 ? -1 : now - lastOnNext);
+            lastOnNext = now;
+        }
+
+        void onFinally() {
+            metrics.onFinally(System.nanoTime() - subscribedAt);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.learning.rxjava.rx.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named pipeline stages and their metrics.
+ *
+ *  source
+ *      .compose(MetricsRegistry.getDefault().<Integer>stage("range"))
+ *      ...
+ *  Log.i(TAG, MetricsRegistry.getDefault().dump());
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentMap<String, StageMetrics> stages = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public StageMetrics metrics(String name) {
+        StageMetrics metrics = stages.get(name);
+        if (metrics == null) {
+            StageMetrics created = new StageMetrics(name);
+            metrics = stages.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Subscriptions going through stages with the same name add up in the same metrics.
+     */
+    public <T> InstrumentedStage<T> stage(String name) {
+        return new InstrumentedStage<>(metrics(name));
+    }
+
+    /**
+     * Per-rail metrics for a ParallelFlowable, see {@link InstrumentedRails}.
+     */
+    public <T> InstrumentedRails<T> rails(String name) {
+        return new InstrumentedRails<>(this, name);
+    }
+
+    public List<String> snapshot() {
+        List<String> lines = new ArrayList<>(stages.size());
+        for (StageMetrics metrics : stages.values()) {
+            lines.add(metrics.snapshot());
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (String line : snapshot()) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void reset() {
+        stages.clear();
+    }
+}
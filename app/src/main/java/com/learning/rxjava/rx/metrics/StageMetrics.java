@@ -0,0 +1,111 @@
+package com.learning.rxjava.rx.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one named stage. Written from the emitting threads without locks: LongAdder for
+ * the hot counters, {@link LatencyHistogram} for durations.
+ */
+public final class StageMetrics {
+
+    private final String name;
+
+    private final LongAdder items = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder completions = new LongAdder();
+    private final AtomicInteger activeSubscriptions = new AtomicInteger();
+    private final AtomicLong firstSubscribedAt = new AtomicLong();
+
+    private final LatencyHistogram onNextIntervals = new LatencyHistogram();
+    private final LatencyHistogram subscriptionLifetimes = new LatencyHistogram();
+
+    StageMetrics(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    void onSubscribe(long now) {
+        firstSubscribedAt.compareAndSet(0, now);
+        activeSubscriptions.incrementAndGet();
+    }
+
+    void onNext(long sincePrevious) {
+        items.increment();
+        if (sincePrevious >= 0) {
+            onNextIntervals.record(sincePrevious);
+        }
+    }
+
+    void onError() {
+        errors.increment();
+    }
+
+    void onComplete() {
+        completions.increment();
+    }
+
+    void onFinally(long lifetime) {
+        activeSubscriptions.decrementAndGet();
+        subscriptionLifetimes.record(lifetime);
+    }
+
+    public long items() {
+        return items.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public int activeSubscriptions() {
+        return activeSubscriptions.get();
+    }
+
+    public LatencyHistogram onNextIntervals() {
+        return onNextIntervals;
+    }
+
+    public LatencyHistogram subscriptionLifetimes() {
+        return subscriptionLifetimes;
+    }
+
+    /**
+     * @return items per second since the stage was first subscribed to
+     */
+    public double throughput() {
+        long start = firstSubscribedAt.get();
+        if (start == 0) {
+            return 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        return elapsed <= 0 ? 0 : items.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    public String snapshot() {
+        return name
+                + ": items=" + items.sum()
+                + " (" + Math.round(throughput()) + "/s)"
+                + " errors=" + errors.sum()
+                + " completed=" + completions.sum()
+                + " active=" + activeSubscriptions.get()
+                + " onNext gap p50/p99/max=" + micros(onNextIntervals.percentile(50))
+                + "/" + micros(onNextIntervals.percentile(99))
+                + "/" + micros(onNextIntervals.max()) + "us"
+                + " lifetime mean/max=" + millis(subscriptionLifetimes.mean())
+                + "/" + millis(subscriptionLifetimes.max()) + "ms";
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
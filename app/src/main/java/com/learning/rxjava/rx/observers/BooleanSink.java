@@ -0,0 +1,34 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Records booleans as 0/1 in a primitive ring.
+ */
+public final class BooleanSink extends RingSink<Boolean> {
+
+    private final LongRingBuffer ring;
+
+    public BooleanSink(String name, int capacity, Reporter reporter) {
+        super(name, reporter);
+        ring = new LongRingBuffer(capacity);
+    }
+
+    @Override
+    public void onNext(Boolean value) {
+        ring.add(value ? 1L : 0L);
+    }
+
+    @Override
+    public long count() {
+        return ring.count();
+    }
+
+    @Override
+    public int size() {
+        return ring.size();
+    }
+
+    @Override
+    protected void appendValue(StringBuilder sb, int index) {
+        sb.append(ring.get(index) != 0L);
+    }
+}
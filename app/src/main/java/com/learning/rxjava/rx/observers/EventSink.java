@@ -0,0 +1,14 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Where {@link RecordingObserver} and {@link RecordingSubscriber} put the events they receive.
+ * Implementations are called on the emitting thread and should do as little as possible there.
+ */
+public interface EventSink<T> {
+
+    void onNext(T value);
+
+    void onError(Throwable e);
+
+    void onComplete();
+}
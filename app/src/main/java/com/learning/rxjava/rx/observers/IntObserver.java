@@ -0,0 +1,14 @@
+package com.learning.rxjava.rx.observers;
+
+import io.reactivex.Observer;
+
+/**
+ * An Observer<Integer> that also takes a primitive int. An operator directly upstream of one can
+ * call {@link #onNextInt(int)} and never create the Integer; anything in between (or a hook
+ * wrapping the observer) only sees the Observer<Integer> and gets boxes as usual, so
+ * implementations make onNext(Integer) and onNextInt(int) do the same thing.
+ */
+public interface IntObserver extends Observer<Integer> {
+
+    void onNextInt(int value);
+}
@@ -0,0 +1,50 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Fixed size ring of primitive longs, allocated once. Once full the oldest values are
+ * overwritten, so recording never allocates no matter how long the stream is.
+ *
+ * Single writer: Rx guarantees onNext calls are serialized. Readers on other threads see a
+ * consistent count but may see values that are being overwritten.
+ */
+public final class LongRingBuffer {
+
+    private final long[] values;
+    private final int mask;
+    private volatile long count;
+
+    public LongRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        values = new long[size];
+        mask = size - 1;
+    }
+
+    public void add(long value) {
+        long c = count;
+        values[(int) c & mask] = value;
+        count = c + 1;
+    }
+
+    /**
+     * @return how many values were added in total, including the overwritten ones
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return how many values are still in the buffer
+     */
+    public int size() {
+        return (int) Math.min(count, values.length);
+    }
+
+    /**
+     * @param index 0 is the oldest value still in the buffer
+     */
+    public long get(int index) {
+        long c = count;
+        long first = c - Math.min(c, values.length);
+        return values[(int) (first + index) & mask];
+    }
+}
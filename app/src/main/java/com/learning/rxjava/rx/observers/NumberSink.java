@@ -0,0 +1,39 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Records Integer, Long, Short... as primitive longs, so the boxes coming from upstream are not
+ * kept alive by the recording.
+ */
+public final class NumberSink<T extends Number> extends RingSink<T> {
+
+    private final LongRingBuffer ring;
+
+    public NumberSink(String name, int capacity, Reporter reporter) {
+        super(name, reporter);
+        ring = new LongRingBuffer(capacity);
+    }
+
+    @Override
+    public void onNext(T value) {
+        ring.add(value.longValue());
+    }
+
+    public LongRingBuffer values() {
+        return ring;
+    }
+
+    @Override
+    public long count() {
+        return ring.count();
+    }
+
+    @Override
+    public int size() {
+        return ring.size();
+    }
+
+    @Override
+    protected void appendValue(StringBuilder sb, int index) {
+        sb.append(ring.get(index));
+    }
+}
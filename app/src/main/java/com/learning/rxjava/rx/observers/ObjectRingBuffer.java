@@ -0,0 +1,38 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Reference counterpart of {@link LongRingBuffer}, for values that aren't primitives.
+ */
+public final class ObjectRingBuffer<T> {
+
+    private final Object[] values;
+    private final int mask;
+    private volatile long count;
+
+    public ObjectRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        values = new Object[size];
+        mask = size - 1;
+    }
+
+    public void add(T value) {
+        long c = count;
+        values[(int) c & mask] = value;
+        count = c + 1;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public int size() {
+        return (int) Math.min(count, values.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        long c = count;
+        long first = c - Math.min(c, values.length);
+        return (T) values[(int) (first + index) & mask];
+    }
+}
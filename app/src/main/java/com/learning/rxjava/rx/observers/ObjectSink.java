@@ -0,0 +1,38 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Records any other value by reference.
+ */
+public final class ObjectSink<T> extends RingSink<T> {
+
+    private final ObjectRingBuffer<T> ring;
+
+    public ObjectSink(String name, int capacity, Reporter reporter) {
+        super(name, reporter);
+        ring = new ObjectRingBuffer<>(capacity);
+    }
+
+    @Override
+    public void onNext(T value) {
+        ring.add(value);
+    }
+
+    public ObjectRingBuffer<T> values() {
+        return ring;
+    }
+
+    @Override
+    public long count() {
+        return ring.count();
+    }
+
+    @Override
+    public int size() {
+        return ring.size();
+    }
+
+    @Override
+    protected void appendValue(StringBuilder sb, int index) {
+        sb.append(ring.get(index));
+    }
+}
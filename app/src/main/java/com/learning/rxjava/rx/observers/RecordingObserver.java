@@ -0,0 +1,66 @@
+package com.learning.rxjava.rx.observers;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.MaybeObserver;
+import io.reactivex.Observer;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+
+/**
+ * One observer for Observable, Single and Maybe that hands every event to an {@link EventSink}.
+ * Used with subscribeWith() it is its own Disposable, like DisposableObserver.
+ *
+ * onSuccess is recorded as onNext followed by onComplete. Like LambdaObserver it counts as
+ * disposed once a terminal event arrived, so containers can tell finished subscriptions apart.
+ */
+public final class RecordingObserver<T> implements Observer<T>, SingleObserver<T>,
+        MaybeObserver<T>, Disposable {
+
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+    private final EventSink<? super T> sink;
+
+    public RecordingObserver(EventSink<? super T> sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        DisposableHelper.setOnce(upstream, d);
+    }
+
+    @Override
+    public void onNext(T value) {
+        sink.onNext(value);
+    }
+
+    @Override
+    public void onSuccess(T value) {
+        upstream.lazySet(DisposableHelper.DISPOSED);
+        sink.onNext(value);
+        sink.onComplete();
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        upstream.lazySet(DisposableHelper.DISPOSED);
+        sink.onError(e);
+    }
+
+    @Override
+    public void onComplete() {
+        upstream.lazySet(DisposableHelper.DISPOSED);
+        sink.onComplete();
+    }
+
+    @Override
+    public void dispose() {
+        DisposableHelper.dispose(upstream);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return upstream.get() == DisposableHelper.DISPOSED;
+    }
+}
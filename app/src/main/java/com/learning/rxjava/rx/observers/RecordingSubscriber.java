@@ -0,0 +1,57 @@
+package com.learning.rxjava.rx.observers;
+
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+
+/**
+ * Flowable counterpart of {@link RecordingObserver}. Requests Long.MAX_VALUE on subscription,
+ * like DisposableSubscriber does by default, and counts as disposed after a terminal event.
+ */
+public final class RecordingSubscriber<T> implements FlowableSubscriber<T>, Disposable {
+
+    private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    private final EventSink<? super T> sink;
+
+    public RecordingSubscriber(EventSink<? super T> sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.setOnce(upstream, s)) {
+            s.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(T value) {
+        sink.onNext(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        upstream.lazySet(SubscriptionHelper.CANCELLED);
+        sink.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        upstream.lazySet(SubscriptionHelper.CANCELLED);
+        sink.onComplete();
+    }
+
+    @Override
+    public void dispose() {
+        SubscriptionHelper.cancel(upstream);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return upstream.get() == SubscriptionHelper.CANCELLED;
+    }
+}
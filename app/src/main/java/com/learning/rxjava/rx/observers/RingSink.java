@@ -0,0 +1,93 @@
+package com.learning.rxjava.rx.observers;
+
+/**
+ * Base of the recording sinks: subclasses store onNext values in a preallocated ring, this class
+ * keeps the terminal event. Nothing is formatted until the stream terminates, then the
+ * {@link Reporter} gets the whole recording at once, off the hot path.
+ */
+public abstract class RingSink<T> implements EventSink<T> {
+
+    /**
+     * Called once, when the stream terminated.
+     */
+    public interface Reporter {
+        void report(RingSink<?> sink);
+    }
+
+    private final String name;
+    private final Reporter reporter;
+    private volatile Throwable error;
+    private volatile boolean completed;
+
+    protected RingSink(String name, Reporter reporter) {
+        this.name = name;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public final void onError(Throwable e) {
+        error = e;
+        reporter.report(this);
+    }
+
+    @Override
+    public final void onComplete() {
+        completed = true;
+        reporter.report(this);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Throwable error() {
+        return error;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return number of onNext calls, including the ones that don't fit in the ring anymore
+     */
+    public abstract long count();
+
+    /**
+     * @return how many values the ring still holds
+     */
+    public abstract int size();
+
+    protected abstract void appendValue(StringBuilder sb, int index);
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+
+    /**
+     * Formats the recording: the values still in the ring, then the terminal event.
+     */
+    public String describe() {
+        int size = size();
+        StringBuilder sb = new StringBuilder(32 + size * 8).append(name).append(" onNext: [");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            appendValue(sb, i);
+        }
+        sb.append(']');
+        long dropped = count() - size;
+        if (dropped > 0) {
+            sb.append(" (").append(dropped).append(" older values overwritten)");
+        }
+        Throwable e = error;
+        if (e != null) {
+            sb.append(" onError: ").append(e);
+        } else if (completed) {
+            sb.append(" onComplete");
+        }
+        return sb.toString();
+    }
+}
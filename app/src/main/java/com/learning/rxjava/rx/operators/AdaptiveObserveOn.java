@@ -0,0 +1,337 @@
+package com.learning.rxjava.rx.operators;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * observeOn() whose prefetch isn't a guess: it tunes how much it requests from upstream while
+ * running, from what it measures on the consumer side.
+ *
+ * Two values are adjusted within the configured limits:
+ * <ul>
+ * <li>the buffer bound, the most items requested and not yet consumed. It follows Little's law:
+ * target latency / measured service time, i.e. as many items as the consumer gets through in the
+ * target latency. A slow consumer gets a short queue, a fast one a deep one.</li>
+ * <li>the request batch. When the consumer found the queue empty since the last adjustment the
+ * producer isn't keeping up and the batch doubles; when the queue sits above 3/4 of the bound the
+ * batch halves.</li>
+ * </ul>
+ * Service time is sampled on one item out of {@link #SAMPLE_EVERY}. Errors are delivered after the
+ * queued items, like observeOn(scheduler, true).
+ *
+ * The latest values are readable through {@link #batch()}, {@link #bound()} and
+ * {@link #serviceNanos()}, which describe the most recently active subscription.
+ */
+public final class AdaptiveObserveOn<T> implements FlowableTransformer<T, T> {
+
+    static final int SAMPLE_EVERY = 8;
+
+    private final Scheduler scheduler;
+    private final int minBatch;
+    private final int maxBatch;
+    private final int minBound;
+    private final int maxBound;
+    private final long targetLatencyNanos;
+
+    private volatile int batch;
+    private volatile int bound;
+    private volatile long serviceNanos;
+
+    private AdaptiveObserveOn(Builder builder) {
+        scheduler = builder.scheduler;
+        minBatch = builder.minBatch;
+        maxBatch = builder.maxBatch;
+        minBound = builder.minBound;
+        maxBound = builder.maxBound;
+        targetLatencyNanos = builder.targetLatencyNanos;
+        batch = minBatch;
+        bound = maxBound;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new Flowable<T>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super T> s) {
+                upstream.subscribe(new AdaptiveSubscriber(s, scheduler.createWorker()));
+            }
+        };
+    }
+
+    public int batch() {
+        return batch;
+    }
+
+    public int bound() {
+        return bound;
+    }
+
+    public long serviceNanos() {
+        return serviceNanos;
+    }
+
+    public static final class Builder {
+        private final Scheduler scheduler;
+        private int minBatch = 4;
+        private int maxBatch = 256;
+        private int minBound = 8;
+        private int maxBound = 1024;
+        private long targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+        public Builder(Scheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        public Builder batch(int min, int max) {
+            if (min <= 0 || max < min) {
+                throw new IllegalArgumentException("0 < min <= max required");
+            }
+            minBatch = min;
+            maxBatch = max;
+            return this;
+        }
+
+        public Builder bound(int min, int max) {
+            if (min <= 0 || max < min) {
+                throw new IllegalArgumentException("0 < min <= max required");
+            }
+            minBound = min;
+            maxBound = max;
+            return this;
+        }
+
+        /**
+         * How long an item may wait in the queue once the consumer runs at its measured pace.
+         */
+        public Builder targetLatency(long time, TimeUnit unit) {
+            targetLatencyNanos = unit.toNanos(time);
+            return this;
+        }
+
+        public <T> AdaptiveObserveOn<T> build() {
+            if (minBatch > minBound) {
+                throw new IllegalArgumentException("the smallest batch must fit in the smallest bound");
+            }
+            return new AdaptiveObserveOn<>(this);
+        }
+    }
+
+    final class AdaptiveSubscriber extends AtomicInteger implements FlowableSubscriber<T>, Subscription, Runnable {
+
+        private static final long serialVersionUID = 6403385212164337418L;
+
+        private final Subscriber<? super T> downstream;
+        private final Scheduler.Worker worker;
+        private final SpscArrayQueue<T> queue = new SpscArrayQueue<>(maxBound);
+        private final AtomicLong requested = new AtomicLong();
+        // written by the upstream thread only
+        private final AtomicLong offered = new AtomicLong();
+
+        private Subscription upstream;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private Throwable error;
+
+        // drain thread only, apart from the initial request in onSubscribe
+        private long requestedUpstream;
+        private long polled;
+        private long emitted;
+        private int currentBatch = minBatch;
+        private int currentBound = maxBound;
+        private long serviceEwma;
+        private long sinceAdjust;
+        private boolean starved;
+        private long queuedSum;
+        private long queuedSamples;
+
+        AdaptiveSubscriber(Subscriber<? super T> downstream, Scheduler.Worker worker) {
+            this.downstream = downstream;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+                requestedUpstream = currentBatch;
+                downstream.onSubscribe(this);
+                s.request(currentBatch);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(t)) {
+                upstream.cancel();
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
+            offered.lazySet(offered.get() + 1);
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                schedule();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                worker.dispose();
+                if (getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        private void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                while (emitted != r) {
+                    boolean d = done;
+                    T v = queue.poll();
+                    boolean empty = v == null;
+                    if (checkTerminated(d, empty)) {
+                        return;
+                    }
+                    if (empty) {
+                        if (requestedUpstream != polled) {
+                            // the consumer could take more but the producer hasn't delivered
+                            starved = true;
+                        }
+                        break;
+                    }
+                    polled++;
+                    emitted++;
+                    if (polled % SAMPLE_EVERY == 0) {
+                        long start = System.nanoTime();
+                        downstream.onNext(v);
+                        sample(System.nanoTime() - start);
+                    } else {
+                        downstream.onNext(v);
+                    }
+                    replenish();
+                }
+                if (emitted == r && checkTerminated(done, queue.isEmpty())) {
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean checkTerminated(boolean d, boolean empty) {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+            if (d && empty) {
+                cancelled = true;
+                Throwable e = error;
+                if (e != null) {
+                    downstream.onError(e);
+                } else {
+                    downstream.onComplete();
+                }
+                worker.dispose();
+                return true;
+            }
+            return false;
+        }
+
+        private void sample(long nanos) {
+            serviceEwma = serviceEwma == 0 ? nanos : serviceEwma + (nanos - serviceEwma) / 8;
+            queuedSum += offered.get() - polled;
+            queuedSamples++;
+        }
+
+        /**
+         * Asks upstream for another batch once it fits under the bound, adjusting both first when
+         * a batch worth of items went through since the last adjustment.
+         */
+        private void replenish() {
+            if (++sinceAdjust >= currentBatch) {
+                sinceAdjust = 0;
+                adjust();
+            }
+            long pending = requestedUpstream - polled;
+            if (pending + currentBatch <= currentBound && !done) {
+                requestedUpstream += currentBatch;
+                upstream.request(currentBatch);
+            }
+        }
+
+        private void adjust() {
+            if (serviceEwma > 0) {
+                currentBound = (int) Math.max(minBound, Math.min(maxBound, targetLatencyNanos / serviceEwma));
+            }
+            long averageQueued = queuedSamples == 0 ? 0 : queuedSum / queuedSamples;
+            if (starved) {
+                currentBatch = Math.min(maxBatch, currentBatch * 2);
+            } else if (averageQueued > currentBound * 3L / 4) {
+                currentBatch = Math.max(minBatch, currentBatch / 2);
+            }
+            currentBatch = Math.max(minBatch, Math.min(currentBatch, currentBound));
+            starved = false;
+            queuedSum = 0;
+            queuedSamples = 0;
+
+            batch = currentBatch;
+            bound = currentBound;
+            serviceNanos = serviceEwma;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.learning.rxjava.rx.operators;
+
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Base for the observer an ObservableOperator hands upstream. It does the parts every operator
+ * needs and a hand written anonymous Observer usually gets wrong: it validates onSubscribe, hands
+ * itself downstream so dispose() reaches upstream, ignores signals after a terminal event, routes
+ * late errors to RxJavaPlugins, and turns a throwing callback into dispose + onError with
+ * {@link #fail(Throwable)}.
+ *
+ * Subclasses implement onNext and check {@link #done} first. Overrides of onError/onComplete, e.g.
+ * to flush a last value, must call super.
+ */
+public abstract class BaseObserver<T, R> implements Observer<T>, Disposable {
+
+    protected final Observer<? super R> downstream;
+    protected Disposable upstream;
+    protected boolean done;
+
+    protected BaseObserver(Observer<? super R> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public final void onSubscribe(Disposable d) {
+        if (DisposableHelper.validate(upstream, d)) {
+            upstream = d;
+            onUpstream(d);
+            downstream.onSubscribe(this);
+        }
+    }
+
+    /**
+     * Called once with the upstream Disposable, before downstream gets onSubscribe.
+     */
+    protected void onUpstream(Disposable d) {
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        if (done) {
+            RxJavaPlugins.onError(e);
+            return;
+        }
+        done = true;
+        downstream.onError(e);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        downstream.onComplete();
+    }
+
+    /**
+     * For exceptions thrown by user code in onNext: disposes upstream and signals the error.
+     */
+    protected final void fail(Throwable t) {
+        Exceptions.throwIfFatal(t);
+        upstream.dispose();
+        onError(t);
+    }
+
+    @Override
+    public void dispose() {
+        upstream.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return upstream.isDisposed();
+    }
+}
@@ -0,0 +1,86 @@
+package com.learning.rxjava.rx.operators;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Flowable counterpart of {@link BaseObserver}, for the subscriber a FlowableOperator hands
+ * upstream. On top of the wiring and terminal guards it forwards request() and cancel(), and
+ * {@link #dropped()} keeps the request accounting balanced for items that were consumed without
+ * being emitted: each one is requested again, so downstream still gets what it asked for.
+ */
+public abstract class BaseSubscriber<T, R> implements FlowableSubscriber<T>, Subscription {
+
+    protected final Subscriber<? super R> downstream;
+    protected Subscription upstream;
+    protected boolean done;
+
+    protected BaseSubscriber(Subscriber<? super R> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public final void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.validate(upstream, s)) {
+            upstream = s;
+            onUpstream(s);
+            downstream.onSubscribe(this);
+        }
+    }
+
+    /**
+     * Called once with the upstream Subscription, before downstream gets onSubscribe.
+     */
+    protected void onUpstream(Subscription s) {
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done) {
+            RxJavaPlugins.onError(t);
+            return;
+        }
+        done = true;
+        downstream.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        downstream.onComplete();
+    }
+
+    /**
+     * For exceptions thrown by user code in onNext: cancels upstream and signals the error.
+     */
+    protected final void fail(Throwable t) {
+        Exceptions.throwIfFatal(t);
+        upstream.cancel();
+        onError(t);
+    }
+
+    /**
+     * Call when an item from upstream won't be emitted.
+     */
+    protected final void dropped() {
+        upstream.request(1);
+    }
+
+    @Override
+    public void request(long n) {
+        upstream.request(n);
+    }
+
+    @Override
+    public void cancel() {
+        upstream.cancel();
+    }
+}
@@ -0,0 +1,449 @@
+package com.learning.rxjava.rx.operators;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Collects up to {@code maxSize} items or whatever arrived within {@code maxTime} of the first
+ * one, whichever comes first, and runs the batch function on a ForkJoinPool. Results are
+ * emitted in the order the batches were closed, one result per batch.
+ *
+ * Unless {@link Builder#pool(ForkJoinPool)} is given, every subscription creates its own pool of
+ * {@code maxBatches} threads and shuts it down when it terminates or is cancelled, so batches
+ * never share the common pool with the parallel streams of the rest of the process.
+ *
+ * Unlike buffer(time, unit, size), which requests everything from upstream, this stays within
+ * backpressure. Upstream is only asked for the items of the batch being filled, and at most
+ * {@code maxBatches} closed batches run or wait for downstream at once. A batch that is full or
+ * timed out while all of them are taken stays open until a result has been emitted, so a slow
+ * source with no downstream demand can't pile up small batches: memory is bounded by
+ * {@code maxBatches + 1} batches. Nothing runs on the Rx computation pool apart from the batch
+ * timer.
+ *
+ * The function runs on a pool thread, so a parallelStream() inside it is split across the same
+ * pool rather than the common one. Upstream errors are delivered after the results of the items
+ * that came before them; an error or null from the function cancels upstream.
+ */
+public final class BatchCompute<T, R> implements FlowableTransformer<T, R> {
+
+    private final Function<? super List<T>, ? extends R> function;
+    private final int maxSize;
+    private final long maxTime;
+    private final TimeUnit unit;
+    private final Scheduler scheduler;
+    private final ForkJoinPool pool;
+    private final int maxBatches;
+
+    private BatchCompute(Builder<T, R> builder) {
+        function = builder.function;
+        maxSize = builder.maxSize;
+        maxTime = builder.maxTime;
+        unit = builder.unit;
+        scheduler = builder.scheduler;
+        pool = builder.pool;
+        maxBatches = builder.maxBatches;
+    }
+
+    @Override
+    public Publisher<R> apply(Flowable<T> upstream) {
+        return new Flowable<R>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super R> s) {
+                ForkJoinPool batchPool = pool != null ? pool : new ForkJoinPool(maxBatches);
+                upstream.subscribe(new BatchSubscriber(s, scheduler.createWorker(), batchPool,
+                        pool == null));
+            }
+        };
+    }
+
+    public static final class Builder<T, R> {
+        private final Function<? super List<T>, ? extends R> function;
+        private int maxSize = 256;
+        private long maxTime = 100;
+        private TimeUnit unit = TimeUnit.MILLISECONDS;
+        private Scheduler scheduler;
+        private ForkJoinPool pool;
+        private int maxBatches = Runtime.getRuntime().availableProcessors();
+
+        public Builder(Function<? super List<T>, ? extends R> function, Scheduler scheduler) {
+            this.function = function;
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * A batch is closed when it has {@code size} items or {@code time} after its first item.
+         */
+        public Builder<T, R> closeAfter(int size, long time, TimeUnit unit) {
+            if (size <= 0 || time <= 0) {
+                throw new IllegalArgumentException("size > 0 and time > 0 required");
+            }
+            maxSize = size;
+            maxTime = time;
+            this.unit = unit;
+            return this;
+        }
+
+        /**
+         * The pool batches run on instead of one per subscription. The caller owns its lifecycle.
+         */
+        public Builder<T, R> pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * How many batches may be running or waiting to be emitted, the number of cores by default.
+         */
+        public Builder<T, R> maxBatches(int maxBatches) {
+            if (maxBatches <= 0) {
+                throw new IllegalArgumentException("maxBatches > 0 required but it was " + maxBatches);
+            }
+            this.maxBatches = maxBatches;
+            return this;
+        }
+
+        public BatchCompute<T, R> build() {
+            return new BatchCompute<>(this);
+        }
+    }
+
+    static final class Batch<T, R> implements Runnable {
+        final List<T> items;
+        final Function<? super List<T>, ? extends R> function;
+        final BatchCompute<T, R>.BatchSubscriber parent;
+        R result;
+        Throwable error;
+        volatile boolean finished;
+
+        Batch(List<T> items, Function<? super List<T>, ? extends R> function,
+              BatchCompute<T, R>.BatchSubscriber parent) {
+            this.items = items;
+            this.function = function;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = function.apply(items);
+                if (result == null) {
+                    error = new NullPointerException("The batch function returned a null value");
+                }
+            } catch (Throwable t) {
+                Exceptions.throwIfFatal(t);
+                error = t;
+            }
+            finished = true;
+            parent.drain();
+        }
+    }
+
+    final class BatchSubscriber extends AtomicInteger implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -2474937406373820171L;
+
+        private final Subscriber<? super R> downstream;
+        private final Scheduler.Worker worker;
+        private final ForkJoinPool pool;
+        // created for this subscription, shut down with it
+        private final boolean ownsPool;
+        // closed batches in order; offered under the lock, polled by the drain loop
+        private final SpscLinkedArrayQueue<Batch<T, R>> batches = new SpscLinkedArrayQueue<>(maxBatches);
+        private final AtomicLong requested = new AtomicLong();
+
+        private Subscription upstream;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private Throwable error;
+
+        // guarded by this
+        private List<T> open;
+        private long openIndex;
+        private Disposable timer;
+        // the open batch is full or timed out and waits for a slot
+        private boolean due;
+        private boolean terminated;
+        // batches closed and not emitted yet
+        private int closed;
+        // requested from upstream and not received yet, all meant for the open (or next) batch
+        private long credit;
+
+        // drain thread only
+        private long emitted;
+
+        BatchSubscriber(Subscriber<? super R> downstream, Scheduler.Worker worker,
+                        ForkJoinPool pool, boolean ownsPool) {
+            this.downstream = downstream;
+            this.worker = worker;
+            this.pool = pool;
+            this.ownsPool = ownsPool;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+                synchronized (this) {
+                    credit = maxSize;
+                }
+                downstream.onSubscribe(this);
+                s.request(maxSize);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            Disposable previousTimer = null;
+            long more = 0;
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                credit--;
+                if (open == null) {
+                    open = new ArrayList<>(maxSize);
+                    due = false;
+                    long index = ++openIndex;
+                    timer = worker.schedule(() -> timeout(index), maxTime, unit);
+                }
+                open.add(t);
+                if (open.size() == maxSize) {
+                    previousTimer = timer;
+                    closeOrWait();
+                    more = demand();
+                }
+            }
+            if (previousTimer != null) {
+                previousTimer.dispose();
+            }
+            requestUpstream(more);
+        }
+
+        private void timeout(long index) {
+            long more;
+            synchronized (this) {
+                if (terminated || index != openIndex || open == null) {
+                    return;
+                }
+                closeOrWait();
+                more = demand();
+            }
+            requestUpstream(more);
+        }
+
+        // under the lock: the open batch is due, it closes once fewer than maxBatches are waiting
+        private void closeOrWait() {
+            if (closed < maxBatches) {
+                close();
+            } else {
+                due = true;
+            }
+        }
+
+        // under the lock
+        private void close() {
+            Batch<T, R> batch = new Batch<>(open, function, this);
+            open = null;
+            timer = null;
+            closed++;
+            batches.offer(batch);
+            pool.execute(batch);
+        }
+
+        /**
+         * Under the lock: how many items to request so the open or next batch can fill up. The
+         * caller requests them after leaving the lock.
+         */
+        private long demand() {
+            if (terminated) {
+                return 0;
+            }
+            long more = maxSize - credit - (open == null ? 0 : open.size());
+            if (more <= 0) {
+                return 0;
+            }
+            credit += more;
+            return more;
+        }
+
+        /**
+         * Drain thread: a result went downstream, so its slot is free for a batch that became due
+         * while all slots were taken.
+         */
+        private void emittedOne() {
+            long more;
+            synchronized (this) {
+                closed--;
+                if (open != null && due && !terminated) {
+                    close();
+                }
+                more = demand();
+            }
+            requestUpstream(more);
+        }
+
+        private void requestUpstream(long n) {
+            if (n > 0) {
+                upstream.request(n);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (terminated) {
+                    RxJavaPlugins.onError(t);
+                    return;
+                }
+                error = t;
+                terminate();
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                terminate();
+            }
+            drain();
+        }
+
+        // under the lock: the partial batch still goes out before the terminal event
+        private void terminate() {
+            terminated = true;
+            if (open != null) {
+                close();
+            }
+            worker.dispose();
+            done = true;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                synchronized (this) {
+                    terminated = true;
+                }
+                worker.dispose();
+                releasePool();
+                if (getAndIncrement() == 0) {
+                    batches.clear();
+                }
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                while (emitted != r) {
+                    if (cancelled) {
+                        batches.clear();
+                        return;
+                    }
+                    boolean d = done;
+                    Batch<T, R> batch = batches.peek();
+                    if (batch == null) {
+                        if (d) {
+                            finish();
+                            return;
+                        }
+                        break;
+                    }
+                    if (!batch.finished) {
+                        break;
+                    }
+                    batches.poll();
+                    if (batch.error != null) {
+                        fail(batch.error);
+                        return;
+                    }
+                    downstream.onNext(batch.result);
+                    emitted++;
+                    if (!d) {
+                        emittedOne();
+                    }
+                }
+                if (cancelled) {
+                    batches.clear();
+                    return;
+                }
+                if (done && batches.isEmpty()) {
+                    finish();
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void finish() {
+            cancelled = true;
+            releasePool();
+            Throwable e = error;
+            if (e != null) {
+                downstream.onError(e);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        private void fail(Throwable e) {
+            cancelled = true;
+            upstream.cancel();
+            synchronized (this) {
+                terminated = true;
+            }
+            worker.dispose();
+            releasePool();
+            batches.clear();
+            downstream.onError(e);
+        }
+
+        // after terminated is set, so no batch is executed on it anymore; running ones finish
+        private void releasePool() {
+            if (ownsPool) {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.learning.rxjava.rx.operators;
+
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.fuseable.QueueDisposable;
+
+/**
+ * {@link BaseObserver} for one-to-at-most-one operators (map, filter, or both) that take part in
+ * queue fusion. Subclasses only implement {@link #apply(Object)}; returning null drops the item.
+ *
+ * The observer is handed downstream as a QueueDisposable. A fusion request is forwarded upstream
+ * and, when upstream accepts, apply() runs inside poll() instead of onNext(). Requests that carry
+ * BOUNDARY are refused, so apply() never moves to the thread of an observeOn() downstream.
+ */
+public abstract class FuseableObserver<T, R> extends BaseObserver<T, R> implements QueueDisposable<R> {
+
+    protected QueueDisposable<T> queue;
+    protected int sourceMode;
+
+    protected FuseableObserver(Observer<? super R> downstream) {
+        super(downstream);
+    }
+
+    /**
+     * @return the value to emit, or null to drop {@code t}
+     */
+    protected abstract R apply(T t) throws Exception;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void onUpstream(Disposable d) {
+        if (d instanceof QueueDisposable) {
+            queue = (QueueDisposable<T>) d;
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (done) {
+            return;
+        }
+        if (sourceMode != NONE) {
+            // async fused: t is null and the value waits in the upstream queue until poll()
+            downstream.onNext(null);
+            return;
+        }
+        R r;
+        try {
+            r = apply(t);
+        } catch (Throwable ex) {
+            fail(ex);
+            return;
+        }
+        if (r != null) {
+            downstream.onNext(r);
+        }
+    }
+
+    @Override
+    public int requestFusion(int mode) {
+        if (queue == null || (mode & BOUNDARY) != 0) {
+            return NONE;
+        }
+        int m = queue.requestFusion(mode);
+        if (m != NONE) {
+            sourceMode = m;
+        }
+        return m;
+    }
+
+    @Override
+    public R poll() throws Exception {
+        for (;;) {
+            T t = queue.poll();
+            if (t == null) {
+                return null;
+            }
+            R r = apply(t);
+            if (r != null) {
+                return r;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+
+    @Override
+    public final boolean offer(R value) {
+        throw new UnsupportedOperationException("Should not be called!");
+    }
+
+    @Override
+    public final boolean offer(R v1, R v2) {
+        throw new UnsupportedOperationException("Should not be called!");
+    }
+}
@@ -0,0 +1,106 @@
+package com.learning.rxjava.rx.operators;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.internal.fuseable.QueueSubscription;
+
+/**
+ * {@link FuseableObserver} for Flowable. Dropped items are requested again from upstream, both
+ * in onNext and, in async fused mode, in poll(), otherwise a filtering operator would stall
+ * waiting for items it already consumed.
+ */
+public abstract class FuseableSubscriber<T, R> extends BaseSubscriber<T, R> implements QueueSubscription<R> {
+
+    protected QueueSubscription<T> queue;
+    protected int sourceMode;
+
+    protected FuseableSubscriber(Subscriber<? super R> downstream) {
+        super(downstream);
+    }
+
+    /**
+     * @return the value to emit, or null to drop {@code t}
+     */
+    protected abstract R apply(T t) throws Exception;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void onUpstream(Subscription s) {
+        if (s instanceof QueueSubscription) {
+            queue = (QueueSubscription<T>) s;
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (done) {
+            return;
+        }
+        if (sourceMode != NONE) {
+            downstream.onNext(null);
+            return;
+        }
+        R r;
+        try {
+            r = apply(t);
+        } catch (Throwable ex) {
+            fail(ex);
+            return;
+        }
+        if (r != null) {
+            downstream.onNext(r);
+        } else {
+            dropped();
+        }
+    }
+
+    @Override
+    public int requestFusion(int mode) {
+        if (queue == null || (mode & BOUNDARY) != 0) {
+            return NONE;
+        }
+        int m = queue.requestFusion(mode);
+        if (m != NONE) {
+            sourceMode = m;
+        }
+        return m;
+    }
+
+    @Override
+    public R poll() throws Exception {
+        for (;;) {
+            T t = queue.poll();
+            if (t == null) {
+                return null;
+            }
+            R r = apply(t);
+            if (r != null) {
+                return r;
+            }
+            if (sourceMode == ASYNC) {
+                queue.request(1);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+
+    @Override
+    public final boolean offer(R value) {
+        throw new UnsupportedOperationException("Should not be called!");
+    }
+
+    @Override
+    public final boolean offer(R v1, R v2) {
+        throw new UnsupportedOperationException("Should not be called!");
+    }
+}
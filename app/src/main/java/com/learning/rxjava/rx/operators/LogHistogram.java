@@ -0,0 +1,100 @@
+package com.learning.rxjava.rx.operators;
+
+import java.util.Arrays;
+
+/**
+ * Fixed memory sketch of non negative longs for approximate percentiles. Values below 8 get a
+ * bucket each; above that every power of two is split into 8 linear sub-buckets, so a percentile
+ * is off by at most 1/8 of its value. Add and remove are O(1), which is what a sliding window
+ * needs; percentile() walks the 488 buckets.
+ *
+ * Negative values are counted as 0. Not thread-safe, each subscriber owns its own.
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+
+    public void add(long value) {
+        counts[index(value)]++;
+        count++;
+    }
+
+    public void remove(long value) {
+        counts[index(value)]--;
+        count--;
+    }
+
+    public void addAll(LogHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+    }
+
+    public void removeAll(LogHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] -= other.counts[i];
+        }
+        count -= other.count;
+    }
+
+    public void clear() {
+        if (count != 0) {
+            Arrays.fill(counts, 0);
+            count = 0;
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return upper bound of the bucket holding the value at that rank, 0 while empty
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    void set(LogHistogram other) {
+        System.arraycopy(other.counts, 0, counts, 0, BUCKETS);
+        count = other.count;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lower + width - 1;
+    }
+}
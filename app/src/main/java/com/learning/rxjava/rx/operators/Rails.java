@@ -0,0 +1,376 @@
+package com.learning.rxjava.rx.operators;
+
+import com.learning.rxjava.rx.metrics.InstrumentedRails;
+import com.learning.rxjava.rx.metrics.MetricsRegistry;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.parallel.ParallelFlowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * map() spread over {@code rails} workers of a Scheduler with
+ * parallel()/runOn()/sequential(), instead of going through the one worker of an observeOn().
+ *
+ * Unordered, results come out in whatever order the rails finish them, which is what
+ * sequential() does. Ordered, every item is tagged with its position before parallel() and the
+ * rails are merged back by position. That needs no unbounded reorder buffer: parallel() hands
+ * out items in order and every rail keeps it, so the next item due is always at the head of one
+ * of the rail queues or still being mapped, and each rail queue holds at most {@code prefetch}.
+ *
+ * With {@link Builder#metrics(MetricsRegistry, String)} every rail records into its own
+ * StageMetrics, see {@link InstrumentedRails}.
+ */
+public final class Rails<T, R> implements FlowableTransformer<T, R> {
+
+    private final Function<? super T, ? extends R> mapper;
+    private final Scheduler scheduler;
+    private final int rails;
+    private final int prefetch;
+    private final boolean ordered;
+    private final MetricsRegistry registry;
+    private final String name;
+
+    private Rails(Builder<T, R> builder) {
+        mapper = builder.mapper;
+        scheduler = builder.scheduler;
+        rails = builder.rails;
+        prefetch = builder.prefetch;
+        ordered = builder.ordered;
+        registry = builder.registry;
+        name = builder.name;
+    }
+
+    @Override
+    public Publisher<R> apply(Flowable<T> upstream) {
+        if (!ordered) {
+            return instrument(upstream
+                    .parallel(rails, prefetch)
+                    .runOn(scheduler, prefetch)
+                    .<R>map(mapper))
+                    .sequential(prefetch);
+        }
+        return Flowable.defer(() -> {
+            long[] position = new long[1];
+            ParallelFlowable<Positioned<R>> mapped = instrument(upstream
+                    .map(v -> new Positioned<T>(position[0]++, v))
+                    .parallel(rails, prefetch)
+                    .runOn(scheduler, prefetch)
+                    .map(p -> new Positioned<R>(p.position, ObjectHelper.requireNonNull(
+                            mapper.apply(p.value), "The mapper returned a null value"))));
+            return new OrderedMerge<>(mapped, prefetch);
+        });
+    }
+
+    private <U> ParallelFlowable<U> instrument(ParallelFlowable<U> mapped) {
+        return registry == null ? mapped : mapped.compose(registry.<U>rails(name));
+    }
+
+    public static final class Builder<T, R> {
+        private final Function<? super T, ? extends R> mapper;
+        private final Scheduler scheduler;
+        private int rails = Runtime.getRuntime().availableProcessors();
+        private int prefetch = Flowable.bufferSize();
+        private boolean ordered;
+        private MetricsRegistry registry;
+        private String name;
+
+        public Builder(Function<? super T, ? extends R> mapper, Scheduler scheduler) {
+            this.mapper = mapper;
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * How many rails, the number of cores by default.
+         */
+        public Builder<T, R> rails(int rails) {
+            if (rails <= 0) {
+                throw new IllegalArgumentException("rails > 0 required but it was " + rails);
+            }
+            this.rails = rails;
+            return this;
+        }
+
+        public Builder<T, R> prefetch(int prefetch) {
+            if (prefetch <= 0) {
+                throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+            }
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        /**
+         * Whether results keep the order of their items, false by default.
+         */
+        public Builder<T, R> ordered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        public Builder<T, R> metrics(MetricsRegistry registry, String name) {
+            this.registry = registry;
+            this.name = name;
+            return this;
+        }
+
+        public Rails<T, R> build() {
+            return new Rails<>(this);
+        }
+    }
+
+    static final class Positioned<T> {
+        final long position;
+        final T value;
+
+        Positioned(long position, T value) {
+            this.position = position;
+            this.value = value;
+        }
+    }
+
+    /**
+     * sequential() that emits by position instead of by arrival. Errors are delivered right away.
+     */
+    static final class OrderedMerge<T> extends Flowable<T> {
+
+        private final ParallelFlowable<Positioned<T>> source;
+        private final int prefetch;
+
+        OrderedMerge(ParallelFlowable<Positioned<T>> source, int prefetch) {
+            this.source = source;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        protected void subscribeActual(Subscriber<? super T> s) {
+            MergeSubscription<T> parent = new MergeSubscription<>(s, source.parallelism(), prefetch);
+            s.onSubscribe(parent);
+            source.subscribe(parent.rails);
+        }
+    }
+
+    static final class MergeSubscription<T> extends AtomicInteger implements Subscription {
+
+        private static final long serialVersionUID = -8211874337563524447L;
+
+        private final Subscriber<? super T> downstream;
+        final RailSubscriber<T>[] rails;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger completedRails = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        // drain thread only
+        private long emitted;
+        private long next;
+        private int lastRail;
+
+        @SuppressWarnings("unchecked")
+        MergeSubscription(Subscriber<? super T> downstream, int parallelism, int prefetch) {
+            this.downstream = downstream;
+            rails = new RailSubscriber[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                rails[i] = new RailSubscriber<>(this, prefetch);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelRails();
+                if (getAndIncrement() == 0) {
+                    clearRails();
+                }
+            }
+        }
+
+        void onError(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                cancelRails();
+                drain();
+            } else if (error.get() != e) {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        void onRailComplete() {
+            completedRails.incrementAndGet();
+            drain();
+        }
+
+        private void cancelRails() {
+            for (RailSubscriber<T> rail : rails) {
+                rail.cancel();
+            }
+        }
+
+        private void clearRails() {
+            for (RailSubscriber<T> rail : rails) {
+                rail.queue.clear();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            int n = rails.length;
+            for (;;) {
+                long r = requested.get();
+                while (emitted != r) {
+                    if (checkTerminated()) {
+                        return;
+                    }
+                    boolean allDone = completedRails.get() == n;
+                    RailSubscriber<T> rail = railWithNext();
+                    if (rail == null) {
+                        if (allDone) {
+                            cancelled = true;
+                            downstream.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+                    Positioned<T> p = rail.queue.poll();
+                    next++;
+                    emitted++;
+                    downstream.onNext(p.value);
+                    rail.consumed();
+                }
+                if (checkTerminated()) {
+                    return;
+                }
+                if (emitted == r && completedRails.get() == n && isEmpty()) {
+                    cancelled = true;
+                    downstream.onComplete();
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * The rail whose head is the item due next, looking at the rail after the last hit first
+         * since parallel() mostly hands out items round-robin.
+         */
+        private RailSubscriber<T> railWithNext() {
+            int n = rails.length;
+            for (int i = 1; i <= n; i++) {
+                int index = (lastRail + i) % n;
+                Positioned<T> head = rails[index].queue.peek();
+                if (head != null && head.position == next) {
+                    lastRail = index;
+                    return rails[index];
+                }
+            }
+            return null;
+        }
+
+        private boolean isEmpty() {
+            for (RailSubscriber<T> rail : rails) {
+                if (!rail.queue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean checkTerminated() {
+            if (cancelled) {
+                clearRails();
+                return true;
+            }
+            Throwable e = error.get();
+            if (e != null) {
+                cancelled = true;
+                clearRails();
+                downstream.onError(e);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    static final class RailSubscriber<T> extends AtomicReference<Subscription>
+            implements FlowableSubscriber<Positioned<T>> {
+
+        private static final long serialVersionUID = 3315716839209773284L;
+
+        private final MergeSubscription<T> parent;
+        private final int prefetch;
+        private final int limit;
+        final SpscLinkedArrayQueue<Positioned<T>> queue;
+
+        // drain thread only
+        private int consumed;
+
+        RailSubscriber(MergeSubscription<T> parent, int prefetch) {
+            this.parent = parent;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscLinkedArrayQueue<>(prefetch);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(Positioned<T> t) {
+            queue.offer(t);
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            parent.onRailComplete();
+        }
+
+        void consumed() {
+            if (++consumed == limit) {
+                consumed = 0;
+                get().request(limit);
+            }
+        }
+
+        void cancel() {
+            SubscriptionHelper.cancel(this);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.learning.rxjava.rx.operators;
+
+/**
+ * Count, sum, min, max, mean and variance of a stream of longs, updated in O(1) without
+ * allocating. The variance uses Welford's algorithm, which stays accurate where the naive
+ * sum-of-squares formula cancels out.
+ *
+ * Instances are mutable. {@link RunningStatsOperator} emits the same snapshot instance every time
+ * and refreshes it before each emission, so read it in onNext, or {@link #copy()} it to keep it or
+ * to hand it to another thread.
+ */
+public final class RunningStats {
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double mean;
+    private double m2;
+
+    public void add(long value) {
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest value, Long.MAX_VALUE while empty
+     */
+    public long min() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, Long.MIN_VALUE while empty
+     */
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * @return population variance, 0 while fewer than two values were added
+     */
+    public double variance() {
+        return count < 2 ? 0 : m2 / count;
+    }
+
+    /**
+     * @return sample variance (n - 1), 0 while fewer than two values were added
+     */
+    public double sampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        mean = 0;
+        m2 = 0;
+    }
+
+    public RunningStats copy() {
+        RunningStats copy = new RunningStats();
+        copy.set(this);
+        return copy;
+    }
+
+    void set(RunningStats other) {
+        count = other.count;
+        sum = other.sum;
+        min = other.min;
+        max = other.max;
+        mean = other.mean;
+        m2 = other.m2;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " sum=" + sum + " min=" + min + " max=" + max
+                + " mean=" + mean + " stddev=" + standardDeviation();
+    }
+}
@@ -0,0 +1,124 @@
+package com.learning.rxjava.rx.operators;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.ObservableOperator;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Running statistics over a stream of numbers, for use with lift().
+ *
+ * Every subscriber gets its own {@link RunningStats} accumulator and one snapshot instance that is
+ * refreshed and emitted again and again, so nothing is allocated per item (Integer values from
+ * the cache aside). Emissions can be thinned out to every N items or at most one per period; the
+ * period is checked against the Scheduler clock when an item arrives, no timer is involved. Items
+ * that came after the last emission are flushed in a final snapshot on completion.
+ */
+public final class RunningStatsOperator<T extends Number> implements ObservableOperator<RunningStats, T> {
+
+    private final long everyItems;
+    private final long periodNanos;
+    private final Scheduler scheduler;
+
+    private RunningStatsOperator(long everyItems, long periodNanos, Scheduler scheduler) {
+        this.everyItems = everyItems;
+        this.periodNanos = periodNanos;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Emits a snapshot for every item.
+     */
+    public static <T extends Number> RunningStatsOperator<T> create() {
+        return new RunningStatsOperator<>(1, 0, null);
+    }
+
+    /**
+     * Emits a snapshot every {@code items} items, and on completion.
+     */
+    public static <T extends Number> RunningStatsOperator<T> everyItems(long items) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("items > 0 required but it was " + items);
+        }
+        return new RunningStatsOperator<>(items, 0, null);
+    }
+
+    /**
+     * Emits at most one snapshot per period as measured by {@code scheduler.now()}, and on
+     * completion.
+     */
+    public static <T extends Number> RunningStatsOperator<T> everyPeriod(long period, TimeUnit unit,
+                                                                         Scheduler scheduler) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period > 0 required but it was " + period);
+        }
+        return new RunningStatsOperator<>(0, unit.toNanos(period), scheduler);
+    }
+
+    @Override
+    public Observer<? super T> apply(Observer<? super RunningStats> observer) {
+        return new RunningStatsObserver<>(observer, everyItems, periodNanos, scheduler);
+    }
+
+    static final class RunningStatsObserver<T extends Number> extends BaseObserver<T, RunningStats> {
+
+        private final long everyItems;
+        private final long periodNanos;
+        private final Scheduler scheduler;
+
+        private final RunningStats stats = new RunningStats();
+        private final RunningStats snapshot = new RunningStats();
+
+        private long sinceEmission;
+        private long lastEmissionNanos;
+
+        RunningStatsObserver(Observer<? super RunningStats> downstream, long everyItems,
+                             long periodNanos, Scheduler scheduler) {
+            super(downstream);
+            this.everyItems = everyItems;
+            this.periodNanos = periodNanos;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        protected void onUpstream(Disposable d) {
+            if (scheduler != null) {
+                lastEmissionNanos = scheduler.now(TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            if (done) {
+                return;
+            }
+            stats.add(value.longValue());
+            sinceEmission++;
+            if (scheduler != null) {
+                long now = scheduler.now(TimeUnit.NANOSECONDS);
+                if (now - lastEmissionNanos >= periodNanos) {
+                    lastEmissionNanos = now;
+                    emit();
+                }
+            } else if (sinceEmission == everyItems) {
+                emit();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done && sinceEmission != 0) {
+                emit();
+            }
+            super.onComplete();
+        }
+
+        private void emit() {
+            sinceEmission = 0;
+            snapshot.set(stats);
+            downstream.onNext(snapshot);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.learning.rxjava.rx.operators;
+
+import com.learning.rxjava.rx.spill.MappedSpillQueue;
+import com.learning.rxjava.rx.spill.Serializer;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * onBackpressureBuffer() that doesn't need the heap to be larger than the burst. Like the
+ * original it requests everything from upstream and never drops, but only the first
+ * {@code memoryCapacity} pending items stay in memory; the rest is appended to a
+ * {@link MappedSpillQueue} and read back, in order, as downstream requests more.
+ *
+ * Once something has been spilled, new items go to disk too until the spill is read back, so the
+ * order is kept: the memory queue always holds the oldest items. Each subscription gets its own
+ * spill files in {@code directory}; they are deleted when it terminates or is cancelled. A failed
+ * write cancels upstream and is signalled as onError. Errors from upstream come after the
+ * buffered items.
+ */
+public final class SpillingBackpressureBuffer<T> implements FlowableTransformer<T, T> {
+
+    private final int memoryCapacity;
+    private final File directory;
+    private final int segmentBytes;
+    private final Serializer<T> serializer;
+
+    public SpillingBackpressureBuffer(int memoryCapacity, File directory, int segmentBytes,
+                                      Serializer<T> serializer) {
+        this.memoryCapacity = memoryCapacity;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.serializer = serializer;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new Flowable<T>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super T> s) {
+                upstream.subscribe(new SpillingSubscriber<>(s, memoryCapacity,
+                        new MappedSpillQueue<>(directory, segmentBytes, serializer)));
+            }
+        };
+    }
+
+    static final class SpillingSubscriber<T> extends AtomicInteger implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -2514538129242366402L;
+
+        private final Subscriber<? super T> downstream;
+        private final SpscArrayQueue<T> memory;
+        private final int memoryCapacity;
+        private final MappedSpillQueue<T> spill;
+        private final AtomicLong requested = new AtomicLong();
+
+        private Subscription upstream;
+        // number of items in memory, written by the upstream thread, decremented by the drain
+        private final AtomicInteger inMemory = new AtomicInteger();
+        private volatile boolean spilling;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private Throwable error;
+        private long emitted;
+
+        SpillingSubscriber(Subscriber<? super T> downstream, int memoryCapacity, MappedSpillQueue<T> spill) {
+            this.downstream = downstream;
+            this.memory = new SpscArrayQueue<>(memoryCapacity);
+            this.memoryCapacity = memoryCapacity;
+            this.spill = spill;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+                downstream.onSubscribe(this);
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (!spilling && inMemory.get() < memoryCapacity) {
+                memory.offer(t);
+                inMemory.incrementAndGet();
+            } else {
+                try {
+                    synchronized (spill) {
+                        spill.offer(t);
+                        spilling = true;
+                    }
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    upstream.cancel();
+                    onError(ex);
+                    return;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                if (getAndIncrement() == 0) {
+                    release();
+                }
+            }
+        }
+
+        private void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                while (emitted != r) {
+                    boolean d = done;
+                    T v = next();
+                    boolean empty = v == null;
+                    if (checkTerminated(d, empty)) {
+                        return;
+                    }
+                    if (empty) {
+                        break;
+                    }
+                    downstream.onNext(v);
+                    emitted++;
+                }
+                if (emitted == r && checkTerminated(done, inMemory.get() == 0 && !spilling)) {
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Memory first, it holds the oldest items, then the spill.
+         */
+        private T next() {
+            T v = memory.poll();
+            if (v != null) {
+                inMemory.decrementAndGet();
+                return v;
+            }
+            if (!spilling) {
+                return null;
+            }
+            synchronized (spill) {
+                v = spill.poll();
+                if (spill.isEmpty()) {
+                    spilling = false;
+                }
+            }
+            return v;
+        }
+
+        private boolean checkTerminated(boolean d, boolean empty) {
+            if (cancelled) {
+                release();
+                return true;
+            }
+            if (d && empty) {
+                cancelled = true;
+                release();
+                Throwable e = error;
+                if (e != null) {
+                    downstream.onError(e);
+                } else {
+                    downstream.onComplete();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void release() {
+            memory.clear();
+            synchronized (spill) {
+                spill.close();
+                spilling = false;
+            }
+        }
+    }
+}
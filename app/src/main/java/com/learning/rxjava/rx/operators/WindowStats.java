@@ -0,0 +1,82 @@
+package com.learning.rxjava.rx.operators;
+
+/**
+ * What {@link WindowStatsOperator} emits: aggregates over the current window, an exponentially
+ * weighted average and the cumulative {@link RunningStats} since subscription.
+ *
+ * Like RunningStats, the same instance is emitted and refreshed every time: read it in onNext or
+ * {@link #copy()} it.
+ */
+public final class WindowStats {
+
+    final LogHistogram histogram = new LogHistogram();
+    final RunningStats cumulative = new RunningStats();
+    long count;
+    long sum;
+    double ewma;
+
+    /**
+     * @return number of values in the window
+     */
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * @return moving average over the window, 0 while it is empty
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return exponentially weighted moving average over all values so far
+     */
+    public double ewma() {
+        return ewma;
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return approximation from the window's {@link LogHistogram}
+     */
+    public long percentile(double percentile) {
+        return histogram.percentile(percentile);
+    }
+
+    public long p50() {
+        return percentile(50);
+    }
+
+    public long p95() {
+        return percentile(95);
+    }
+
+    public long p99() {
+        return percentile(99);
+    }
+
+    public RunningStats cumulative() {
+        return cumulative;
+    }
+
+    public WindowStats copy() {
+        WindowStats copy = new WindowStats();
+        copy.histogram.set(histogram);
+        copy.cumulative.set(cumulative);
+        copy.count = count;
+        copy.sum = sum;
+        copy.ewma = ewma;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + mean() + " ewma=" + ewma
+                + " p50=" + p50() + " p95=" + p95() + " p99=" + p99();
+    }
+}
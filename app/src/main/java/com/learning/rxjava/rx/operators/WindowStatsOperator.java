@@ -0,0 +1,183 @@
+package com.learning.rxjava.rx.operators;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.ObservableOperator;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+
+/**
+ * Sliding window statistics for use with lift(), emitting a {@link WindowStats} per item: moving
+ * average, exponentially weighted average and approximate percentiles. Unlike
+ * window(...).flatMap { it.toList() } no window is ever buffered, each item is an O(1) update.
+ *
+ * The count window keeps the last N values in a long ring and takes the evicted one back out of
+ * the totals. The time window is cut into slots with their own count, sum and histogram; when the
+ * scheduler clock moves past a slot, its totals are subtracted, so the window moves in steps of
+ * span / slots. Time only advances when an item arrives.
+ */
+public final class WindowStatsOperator<T extends Number> implements ObservableOperator<WindowStats, T> {
+
+    private final int size;
+    private final long spanNanos;
+    private final int slots;
+    private final double alpha;
+    private final Scheduler scheduler;
+
+    private WindowStatsOperator(int size, long spanNanos, int slots, double alpha, Scheduler scheduler) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("0 < alpha <= 1 required but it was " + alpha);
+        }
+        this.size = size;
+        this.spanNanos = spanNanos;
+        this.slots = slots;
+        this.alpha = alpha;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param size  number of most recent values in the window
+     * @param alpha weight of the newest value in the EWMA
+     */
+    public static <T extends Number> WindowStatsOperator<T> count(int size, double alpha) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return new WindowStatsOperator<>(size, 0, 0, alpha, null);
+    }
+
+    /**
+     * @param span  length of the window on {@code scheduler.now()}
+     * @param slots how many steps the window moves by per span
+     * @param alpha weight of the newest value in the EWMA
+     */
+    public static <T extends Number> WindowStatsOperator<T> time(long span, TimeUnit unit, int slots,
+                                                                 double alpha, Scheduler scheduler) {
+        if (span <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("span > 0 and slots > 0 required");
+        }
+        return new WindowStatsOperator<>(0, unit.toNanos(span), slots, alpha, scheduler);
+    }
+
+    @Override
+    public Observer<? super T> apply(Observer<? super WindowStats> observer) {
+        Window window = scheduler == null
+                ? new CountWindow(size)
+                : new TimeWindow(spanNanos, slots, scheduler);
+        return new WindowStatsObserver<>(observer, window, alpha);
+    }
+
+    /**
+     * Keeps {@link WindowStats#count}, sum and histogram up to date.
+     */
+    interface Window {
+        void add(long value, WindowStats stats);
+    }
+
+    static final class CountWindow implements Window {
+        private final long[] values;
+        private int next;
+        private boolean full;
+
+        CountWindow(int size) {
+            values = new long[size];
+        }
+
+        @Override
+        public void add(long value, WindowStats stats) {
+            if (full) {
+                long evicted = values[next];
+                stats.sum -= evicted;
+                stats.histogram.remove(evicted);
+            } else {
+                stats.count++;
+            }
+            values[next] = value;
+            stats.sum += value;
+            stats.histogram.add(value);
+            if (++next == values.length) {
+                next = 0;
+                full = true;
+            }
+        }
+    }
+
+    static final class TimeWindow implements Window {
+        private final long slotNanos;
+        private final Scheduler scheduler;
+        private final long[] counts;
+        private final long[] sums;
+        private final LogHistogram[] histograms;
+        private long currentSlot = Long.MIN_VALUE;
+
+        TimeWindow(long spanNanos, int slots, Scheduler scheduler) {
+            this.slotNanos = Math.max(1, spanNanos / slots);
+            this.scheduler = scheduler;
+            counts = new long[slots];
+            sums = new long[slots];
+            histograms = new LogHistogram[slots];
+            for (int i = 0; i < slots; i++) {
+                histograms[i] = new LogHistogram();
+            }
+        }
+
+        @Override
+        public void add(long value, WindowStats stats) {
+            long slot = scheduler.now(TimeUnit.NANOSECONDS) / slotNanos;
+            if (slot != currentSlot) {
+                expire(slot, stats);
+            }
+            int i = (int) Math.floorMod(slot, (long) counts.length);
+            counts[i]++;
+            sums[i] += value;
+            histograms[i].add(value);
+            stats.count++;
+            stats.sum += value;
+            stats.histogram.add(value);
+        }
+
+        /**
+         * Clears the slots that fell out of the window, at most all of them.
+         */
+        private void expire(long slot, WindowStats stats) {
+            long steps = currentSlot == Long.MIN_VALUE ? 0 : Math.min(slot - currentSlot, counts.length);
+            for (long s = 1; s <= steps; s++) {
+                int i = (int) Math.floorMod(currentSlot + s, (long) counts.length);
+                if (counts[i] != 0) {
+                    stats.count -= counts[i];
+                    stats.sum -= sums[i];
+                    stats.histogram.removeAll(histograms[i]);
+                    counts[i] = 0;
+                    sums[i] = 0;
+                    histograms[i].clear();
+                }
+            }
+            currentSlot = slot;
+        }
+    }
+
+    static final class WindowStatsObserver<T extends Number> extends BaseObserver<T, WindowStats> {
+
+        private final Window window;
+        private final double alpha;
+        private final WindowStats stats = new WindowStats();
+
+        WindowStatsObserver(Observer<? super WindowStats> downstream, Window window, double alpha) {
+            super(downstream);
+            this.window = window;
+            this.alpha = alpha;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            long value = item.longValue();
+            window.add(value, stats);
+            stats.ewma = stats.cumulative.count() == 0 ? value : stats.ewma + alpha * (value - stats.ewma);
+            stats.cumulative.add(value);
+            downstream.onNext(stats);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.learning.rxjava.rx.sources;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring (Vyukov's array queue). Each slot has a
+ * sequence number telling whether it is free for the producer at that lap or holds a value for
+ * the consumer, so offer and poll are one CAS on their index in the common case.
+ *
+ * Multiple consumers are needed because producers themselves poll when evicting the oldest item.
+ */
+final class BoundedRingQueue<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    BoundedRingQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        items = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    boolean offer(T value) {
+        long position = tail.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(index, value);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (delta < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    T poll() {
+        long position = head.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long delta = sequences.get(index) - (position + 1);
+            if (delta == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T value = items.get(index);
+                    items.lazySet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    return value;
+                }
+                position = head.get();
+            } else if (delta < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * @return approximate number of items, exact when no offer or poll is running
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,280 @@
+package com.learning.rxjava.rx.sources;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+
+/**
+ * Entry point for push-based producers (listeners, callbacks, other threads) that can't be slowed
+ * down, feeding a backpressured Flowable. This is what a PublishProcessor can't do: it fails with
+ * MissingBackpressureException as soon as the consumer falls behind.
+ *
+ * Producers call {@link #offer(Object)} from any thread. Items go into a bounded lock-free ring;
+ * when it is full the {@link OverflowPolicy} decides. Only blockWithTimeout() ever makes a
+ * producer wait; spillToDisk() leaves the disk to the worker. The single subscriber of
+ * {@link #flowable()} is served on the given Scheduler, as fast as it requests.
+ *
+ * The counters are meant to size the ring in production: how often it overflowed, how many items
+ * were dropped or spilled, and the highest occupancy seen.
+ */
+public final class IngestionGateway<T> {
+
+    final BoundedRingQueue<T> ring;
+    final LongAdder accepted = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder overflowed = new LongAdder();
+    final LongAdder spilled = new LongAdder();
+    private final AtomicLong highWater = new AtomicLong();
+
+    private final OverflowPolicy<T> policy;
+    private final OverflowPolicy.SpillPolicy<T> spillPolicy;
+    private final Scheduler.Worker worker;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final Runnable drainTask = this::drainLoop;
+
+    private volatile Subscriber<? super T> downstream;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private Throwable error;
+    private long emitted;
+
+    public IngestionGateway(int capacity, OverflowPolicy<T> policy, Scheduler scheduler) {
+        this.ring = new BoundedRingQueue<>(capacity);
+        this.policy = policy;
+        this.spillPolicy = policy instanceof OverflowPolicy.SpillPolicy
+                ? (OverflowPolicy.SpillPolicy<T>) policy : null;
+        this.worker = scheduler.createWorker();
+    }
+
+    /**
+     * @return false if the item was dropped, or the gateway already terminated
+     */
+    public boolean offer(T item) {
+        ObjectHelper.requireNonNull(item, "item is null");
+        if (done || cancelled) {
+            return false;
+        }
+        boolean accepted;
+        if (spillPolicy != null && spillPolicy.appendIfSpilling(this, item)) {
+            accepted = true;
+        } else if (ring.offer(item)) {
+            accepted = true;
+            updateHighWater();
+        } else {
+            overflowed.increment();
+            accepted = policy.overflow(this, item);
+        }
+        if (accepted) {
+            this.accepted.increment();
+            drain();
+        }
+        return accepted;
+    }
+
+    /**
+     * No more items; the subscriber completes once it has received what is queued.
+     */
+    public void complete() {
+        done = true;
+        drain();
+    }
+
+    public void error(Throwable e) {
+        error = e;
+        done = true;
+        drain();
+    }
+
+    /**
+     * Can be subscribed once.
+     */
+    public Flowable<T> flowable() {
+        return new Flowable<T>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super T> s) {
+                if (!subscribed.compareAndSet(false, true)) {
+                    EmptySubscription.error(new IllegalStateException("IngestionGateway allows only one subscriber"), s);
+                    return;
+                }
+                s.onSubscribe(new GatewaySubscription());
+                downstream = s;
+                drain();
+            }
+        };
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return how many offers found the ring full
+     */
+    public long overflowed() {
+        return overflowed.sum();
+    }
+
+    public long spilled() {
+        return spilled.sum();
+    }
+
+    /**
+     * @return the highest ring occupancy seen
+     */
+    public long highWater() {
+        return highWater.get();
+    }
+
+    public int size() {
+        return ring.size();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    boolean isTerminated() {
+        return done || cancelled;
+    }
+
+    /**
+     * Evicts the oldest item and queues {@code item} instead, dropping it if the ring filled up
+     * again meanwhile.
+     */
+    boolean replaceOldest(T item) {
+        for (int attempt = 0; attempt < 4; attempt++) {
+            if (ring.poll() != null) {
+                dropped.increment();
+            }
+            if (ring.offer(item)) {
+                return true;
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    void drain() {
+        if (wip.getAndIncrement() == 0) {
+            worker.schedule(drainTask);
+        }
+    }
+
+    private void updateHighWater() {
+        long size = ring.size();
+        long current = highWater.get();
+        while (size > current && !highWater.compareAndSet(current, size)) {
+            current = highWater.get();
+        }
+    }
+
+    private void drainLoop() {
+        int missed = 1;
+        for (;;) {
+            Subscriber<? super T> a = downstream;
+            if (a != null) {
+                long r = requested.get();
+                while (emitted != r) {
+                    boolean d = done;
+                    T item = next();
+                    if (checkTerminated(d, item == null && !spilling(), a)) {
+                        return;
+                    }
+                    if (item == null) {
+                        break;
+                    }
+                    a.onNext(item);
+                    emitted++;
+                }
+                if (emitted == r && checkTerminated(done, ring.isEmpty() && !spilling(), a)) {
+                    return;
+                }
+            }
+            if (spillPolicy != null) {
+                // whatever is left can't be emitted now
+                spillPolicy.flush(this);
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * The ring holds the oldest items, spilled ones come after it.
+     */
+    private T next() {
+        T item = ring.poll();
+        if (item == null && spillPolicy != null) {
+            item = spillPolicy.poll();
+        }
+        return item;
+    }
+
+    private boolean spilling() {
+        return spillPolicy != null && spillPolicy.isSpilling();
+    }
+
+    private boolean checkTerminated(boolean d, boolean empty, Subscriber<? super T> a) {
+        if (cancelled) {
+            terminate();
+            return true;
+        }
+        if (d && empty) {
+            cancelled = true;
+            terminate();
+            Throwable e = error;
+            if (e != null) {
+                a.onError(e);
+            } else {
+                a.onComplete();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void terminate() {
+        while (ring.poll() != null) {
+            // release the references
+        }
+        policy.close();
+        worker.dispose();
+    }
+
+    final class GatewaySubscription implements Subscription {
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                drain();
+            }
+        }
+    }
+}
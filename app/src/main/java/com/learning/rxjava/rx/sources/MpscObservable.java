@@ -0,0 +1,200 @@
+package com.learning.rxjava.rx.sources;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.internal.disposables.CancellableDisposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Observable.create() whose emitter may be called from any number of threads at once, the job
+ * create(...).serialize() does with a synchronized emitting flag.
+ *
+ * Here producers never block: a producer that finds the emitter idle claims it with a CAS and
+ * emits directly, the others offer into a lock-free MpscLinkedQueue and bump a work counter. Only
+ * the thread that moved the counter from 0 runs the drain loop, the rest return immediately, so
+ * adding producers adds queue offers rather than monitor contention. Events from one producer stay
+ * in order; errors are delivered ahead of queued items, as serialize() does.
+ */
+public final class MpscObservable<T> extends Observable<T> {
+
+    private final ObservableOnSubscribe<T> source;
+
+    private MpscObservable(ObservableOnSubscribe<T> source) {
+        this.source = source;
+    }
+
+    public static <T> Observable<T> create(ObservableOnSubscribe<T> source) {
+        return RxJavaPlugins.onAssembly(new MpscObservable<>(source));
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        MpscEmitter<T> emitter = new MpscEmitter<>(observer);
+        observer.onSubscribe(emitter);
+        try {
+            source.subscribe(emitter);
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            emitter.onError(ex);
+        }
+    }
+
+    static final class MpscEmitter<T> extends AtomicInteger implements ObservableEmitter<T>, Disposable {
+
+        private static final long serialVersionUID = -5254733165384584853L;
+
+        private final Observer<? super T> actual;
+        private final MpscLinkedQueue<T> queue = new MpscLinkedQueue<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicReference<Disposable> resource = new AtomicReference<>();
+
+        private volatile boolean done;
+        private volatile boolean disposed;
+
+        MpscEmitter(Observer<? super T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done || disposed) {
+                return;
+            }
+            if (t == null) {
+                onError(new NullPointerException("onNext called with null. Null values are generally not allowed in 2.x operators and sources."));
+                return;
+            }
+            if (get() == 0 && compareAndSet(0, 1)) {
+                actual.onNext(t);
+                if (decrementAndGet() == 0) {
+                    return;
+                }
+            } else {
+                queue.offer(t);
+                if (getAndIncrement() != 0) {
+                    return;
+                }
+            }
+            drainLoop();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!tryOnError(t)) {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public boolean tryOnError(Throwable t) {
+            if (done || disposed) {
+                return false;
+            }
+            if (t == null) {
+                t = new NullPointerException("onError called with null. Null values are generally not allowed in 2.x operators and sources.");
+            }
+            if (!error.compareAndSet(null, t)) {
+                return false;
+            }
+            done = true;
+            drain();
+            return true;
+        }
+
+        @Override
+        public void onComplete() {
+            if (done || disposed) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void setDisposable(Disposable d) {
+            DisposableHelper.set(resource, d);
+        }
+
+        @Override
+        public void setCancellable(Cancellable c) {
+            setDisposable(new CancellableDisposable(c));
+        }
+
+        @Override
+        public ObservableEmitter<T> serialize() {
+            return this;
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                DisposableHelper.dispose(resource);
+                if (getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        private void drain() {
+            if (getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        queue.clear();
+                        return;
+                    }
+                    Throwable ex = error.get();
+                    if (ex != null) {
+                        queue.clear();
+                        terminate();
+                        actual.onError(ex);
+                        return;
+                    }
+                    boolean d = done;
+                    T v = queue.poll();
+                    boolean empty = v == null;
+                    if (d && empty) {
+                        terminate();
+                        actual.onComplete();
+                        return;
+                    }
+                    if (empty) {
+                        break;
+                    }
+                    actual.onNext(v);
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void terminate() {
+            disposed = true;
+            DisposableHelper.dispose(resource);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.learning.rxjava.rx.sources;
+
+import com.learning.rxjava.rx.spill.MappedSpillQueue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.internal.queue.MpscLinkedQueue;
+
+/**
+ * What an {@link IngestionGateway} does with an item that arrives while its ring is full.
+ */
+public abstract class OverflowPolicy<T> {
+
+    /**
+     * @return true if the item was accepted, one way or another
+     */
+    abstract boolean overflow(IngestionGateway<T> gateway, T item);
+
+    void close() {
+    }
+
+    /**
+     * Rejects the new item.
+     */
+    public static <T> OverflowPolicy<T> dropNewest() {
+        return new OverflowPolicy<T>() {
+            @Override
+            boolean overflow(IngestionGateway<T> gateway, T item) {
+                gateway.dropped.increment();
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Evicts the oldest queued item to make room for the new one.
+     */
+    public static <T> OverflowPolicy<T> dropOldest() {
+        return new OverflowPolicy<T>() {
+            @Override
+            boolean overflow(IngestionGateway<T> gateway, T item) {
+                return gateway.replaceOldest(item);
+            }
+        };
+    }
+
+    /**
+     * Keeps one overflowing item out of {@code every}, in place of the oldest queued one, and drops
+     * the others: a full ring still follows the source, at a lower rate.
+     */
+    public static <T> OverflowPolicy<T> sample(int every) {
+        if (every <= 0) {
+            throw new IllegalArgumentException("every > 0 required but it was " + every);
+        }
+        AtomicLong overflows = new AtomicLong();
+        return new OverflowPolicy<T>() {
+            @Override
+            boolean overflow(IngestionGateway<T> gateway, T item) {
+                if (overflows.incrementAndGet() % every == 0) {
+                    return gateway.replaceOldest(item);
+                }
+                gateway.dropped.increment();
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Waits up to {@code timeout} for the consumer to make room, then drops the new item. The only
+     * policy that blocks the producer.
+     */
+    public static <T> OverflowPolicy<T> blockWithTimeout(long timeout, TimeUnit unit) {
+        long timeoutNanos = unit.toNanos(timeout);
+        return new OverflowPolicy<T>() {
+            @Override
+            boolean overflow(IngestionGateway<T> gateway, T item) {
+                long deadline = System.nanoTime() + timeoutNanos;
+                while (!gateway.ring.offer(item)) {
+                    if (System.nanoTime() - deadline >= 0 || gateway.isTerminated()) {
+                        gateway.dropped.increment();
+                        return false;
+                    }
+                    gateway.drain();
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(20));
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Appends overflowing items to {@code spill}. Until they have been read back, later items go
+     * the same way so that each producer's items stay in order. Nothing is dropped unless the disk
+     * fails; the queue's files are deleted when the gateway terminates.
+     *
+     * Producers never touch the disk: they hand items to a lock-free queue and the gateway's
+     * worker writes them to {@code spill} whenever it runs out of demand. Until then they are in
+     * memory, so a worker stuck in a slow onNext() lets that queue grow. A write that fails is
+     * counted in dropped(), after offer() already returned true.
+     */
+    public static <T> OverflowPolicy<T> spillToDisk(MappedSpillQueue<T> spill) {
+        return new SpillPolicy<>(spill);
+    }
+
+    static final class SpillPolicy<T> extends OverflowPolicy<T> {
+        // only touched by the gateway's worker
+        final MappedSpillQueue<T> spill;
+        // handed over by producers, moved to the spill by the worker
+        final MpscLinkedQueue<T> inbox = new MpscLinkedQueue<>();
+        // items in the inbox or the spill, counted before they are offered to the inbox. While it
+        // isn't 0 producers append behind them instead of using the ring.
+        final AtomicLong backlog = new AtomicLong();
+
+        SpillPolicy(MappedSpillQueue<T> spill) {
+            this.spill = spill;
+        }
+
+        @Override
+        boolean overflow(IngestionGateway<T> gateway, T item) {
+            backlog.getAndIncrement();
+            hand(gateway, item);
+            return true;
+        }
+
+        /**
+         * Appends while spilled items are waiting, so new items don't overtake them.
+         *
+         * @return false if nothing is waiting and the item should go to the ring
+         */
+        boolean appendIfSpilling(IngestionGateway<T> gateway, T item) {
+            for (;;) {
+                long n = backlog.get();
+                if (n == 0) {
+                    return false;
+                }
+                if (backlog.compareAndSet(n, n + 1)) {
+                    hand(gateway, item);
+                    return true;
+                }
+            }
+        }
+
+        private void hand(IngestionGateway<T> gateway, T item) {
+            inbox.offer(item);
+            gateway.spilled.increment();
+        }
+
+        boolean isSpilling() {
+            return backlog.get() != 0;
+        }
+
+        /**
+         * Worker only: what is on disk comes before what is still in the inbox.
+         */
+        T poll() {
+            if (backlog.get() == 0) {
+                return null;
+            }
+            T item = spill.isEmpty() ? null : spill.poll();
+            if (item == null) {
+                item = inbox.poll();
+            }
+            if (item != null) {
+                backlog.decrementAndGet();
+            }
+            return item;
+        }
+
+        /**
+         * Worker only: writes what the producers handed over to disk.
+         */
+        void flush(IngestionGateway<T> gateway) {
+            T item;
+            while ((item = inbox.poll()) != null) {
+                try {
+                    spill.offer(item);
+                } catch (RuntimeException e) {
+                    // disk full...: the item is lost, the ones after it keep their order
+                    backlog.decrementAndGet();
+                    gateway.dropped.increment();
+                }
+            }
+        }
+
+        @Override
+        void close() {
+            spill.close();
+            inbox.clear();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.learning.rxjava.rx.spill;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+
+/**
+ * FIFO queue kept on disk in memory-mapped, append-only segment files, for items that don't fit
+ * in memory. Each record is an int length followed by what the {@link Serializer} wrote. Writes go
+ * to the last segment and a new one is mapped when it's full; reads start from the first, which
+ * is deleted once fully read. When everything has been read the last segment is rewound and
+ * reused, so a queue that keeps draining stays at one file.
+ *
+ * The files are scratch space: the segment bookkeeping lives in memory and {@link #close()}
+ * deletes them. Every segment is created with File.createTempFile(), so any number of queues can
+ * share a directory. Pages are written back by the OS; nothing is forced to disk. A deleted segment is
+ * unmapped when its buffer is garbage collected.
+ *
+ * Not thread-safe, callers synchronize.
+ */
+public final class MappedSpillQueue<T> implements Closeable {
+
+    private static final int LENGTH_BYTES = 4;
+
+    private final File directory;
+    private final int segmentBytes;
+    private final Serializer<T> serializer;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private long size;
+    private boolean closed;
+
+    public MappedSpillQueue(File directory, int segmentBytes, Serializer<T> serializer) {
+        if (segmentBytes <= LENGTH_BYTES) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.serializer = serializer;
+    }
+
+    public void offer(T value) {
+        if (closed) {
+            throw new IllegalStateException("closed");
+        }
+        Segment segment = segments.peekLast();
+        if (segment == null) {
+            segment = newSegment();
+        }
+        if (!segment.append(value)) {
+            if (segment.written == 0) {
+                throw new IllegalArgumentException("record larger than a segment of " + segmentBytes + " bytes");
+            }
+            segment = newSegment();
+            if (!segment.append(value)) {
+                throw new IllegalArgumentException("record larger than a segment of " + segmentBytes + " bytes");
+            }
+        }
+        size++;
+    }
+
+    /**
+     * @return the oldest item, null if empty
+     */
+    public T poll() {
+        Segment segment = segments.peekFirst();
+        while (segment != null && segment.read == segment.written) {
+            if (segment == segments.peekLast()) {
+                segment.rewind();
+                return null;
+            }
+            segments.pollFirst().delete();
+            segment = segments.peekFirst();
+        }
+        if (segment == null) {
+            return null;
+        }
+        size--;
+        return segment.next();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        segments.clear();
+        size = 0;
+    }
+
+    private Segment newSegment() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new UncheckedIOException(new IOException("can't create " + directory));
+        }
+        File file;
+        try {
+            file = File.createTempFile("spill-", ".seg", directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            Segment segment = new Segment(file, buffer);
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException e) {
+            file.delete();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class Segment {
+        final File file;
+        final ByteBuffer writeView;
+        final ByteBuffer readView;
+        long written;
+        long read;
+
+        Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            writeView = buffer.duplicate();
+            readView = buffer.duplicate();
+        }
+
+        boolean append(T value) {
+            int start = writeView.position();
+            if (writeView.remaining() < LENGTH_BYTES) {
+                return false;
+            }
+            writeView.position(start + LENGTH_BYTES);
+            try {
+                serializer.write(value, writeView);
+            } catch (BufferOverflowException e) {
+                writeView.position(start);
+                return false;
+            }
+            writeView.putInt(start, writeView.position() - start - LENGTH_BYTES);
+            written++;
+            return true;
+        }
+
+        T next() {
+            int length = readView.getInt();
+            int start = readView.position();
+            readView.limit(start + length);
+            try {
+                return serializer.read(readView);
+            } finally {
+                readView.limit(readView.capacity());
+                readView.position(start + length);
+                read++;
+            }
+        }
+
+        void rewind() {
+            writeView.clear();
+            readView.clear();
+            written = 0;
+            read = 0;
+        }
+
+        void delete() {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.learning.rxjava.rx.spill;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Turns items into bytes for {@link MappedSpillQueue}. write() puts the value at the buffer's
+ * position and may throw BufferOverflowException when it doesn't fit, the queue then retries in a
+ * fresh segment. read() gets a buffer limited to exactly the bytes write() produced.
+ */
+public interface Serializer<T> {
+
+    void write(T value, ByteBuffer target);
+
+    T read(ByteBuffer source);
+
+    Serializer<Integer> INTEGER = new Serializer<Integer>() {
+        @Override
+        public void write(Integer value, ByteBuffer target) {
+            target.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer source) {
+            return source.getInt();
+        }
+    };
+
+    Serializer<Long> LONG = new Serializer<Long>() {
+        @Override
+        public void write(Long value, ByteBuffer target) {
+            target.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer source) {
+            return source.getLong();
+        }
+    };
+
+    Serializer<String> STRING = new Serializer<String>() {
+        private final Charset utf8 = Charset.forName("UTF-8");
+
+        @Override
+        public void write(String value, ByteBuffer target) {
+            target.put(value.getBytes(utf8));
+        }
+
+        @Override
+        public String read(ByteBuffer source) {
+            byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return new String(bytes, utf8);
+        }
+    };
+}
@@ -0,0 +1,60 @@
+package com.learning.rxjava.rx.tracing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the tracer knows about one operator class, e.g. ObservableMap.
+ */
+public final class OperatorStats {
+
+    private final String operator;
+
+    final LongAdder assembled = new LongAdder();
+    final LongAdder subscribed = new LongAdder();
+    final LongAdder calls = new LongAdder();
+    final LongAdder sampledCalls = new LongAdder();
+    final LongAdder sampledSelfNanos = new LongAdder();
+
+    OperatorStats(String operator) {
+        this.operator = operator;
+    }
+
+    public String operator() {
+        return operator;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long sampledCalls() {
+        return sampledCalls.sum();
+    }
+
+    /**
+     * @return mean time spent in the operator's own onNext, without what runs downstream of it
+     */
+    public long meanSelfNanos() {
+        long sampled = sampledCalls.sum();
+        return sampled == 0 ? 0 : sampledSelfNanos.sum() / sampled;
+    }
+
+    /**
+     * @return the sampled mean extrapolated to all calls
+     */
+    public long estimatedTotalNanos() {
+        return meanSelfNanos() * calls.sum();
+    }
+
+    @Override
+    public String toString() {
+        return operator
+                + ": assembled=" + assembled.sum()
+                + " subscribed=" + subscribed.sum()
+                + " onNext=" + calls.sum()
+                + " sampled=" + sampledCalls.sum()
+                + " self mean=" + meanSelfNanos() + "ns"
+                + " est. total=" + TimeUnit.NANOSECONDS.toMillis(estimatedTotalNanos()) + "ms";
+    }
+}
@@ -0,0 +1,133 @@
+package com.learning.rxjava.rx.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Opt-in operator level tracing through the global RxJavaPlugins hooks, so no chain has to be
+ * edited.
+ *
+ * The assembly hooks count how many instances of each operator class get created. The subscribe
+ * hooks put a probe in front of every observer an operator hands upstream, e.g. the MapObserver
+ * of a map(). The probe times that observer's onNext and subtracts the probes nested in it, which
+ * gives the time spent in the operator itself, reported per operator class (ObservableMap,
+ * ObservableObserveOn, LambdaObserver for the subscriber...).
+ *
+ * Only one call out of sampleRate is timed; a whole synchronous call chain is sampled together.
+ * enable()/disable() can be called at any time: disabling removes the hooks and turns the probes
+ * already in place into plain pass-throughs.
+ *
+ * The hooks replace whatever was installed before on RxJavaPlugins for the same callbacks.
+ */
+public final class OperatorTracer {
+
+    private static final OperatorTracer INSTANCE = new OperatorTracer();
+
+    private final ConcurrentMap<String, OperatorStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile int sampleRate = 100;
+
+    public static OperatorTracer getInstance() {
+        return INSTANCE;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public synchronized void enable(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+        enabled = true;
+
+        RxJavaPlugins.setOnObservableAssembly(source -> {
+            stats(source.getClass()).assembled.increment();
+            return source;
+        });
+        RxJavaPlugins.setOnFlowableAssembly(source -> {
+            stats(source.getClass()).assembled.increment();
+            return source;
+        });
+        RxJavaPlugins.setOnObservableSubscribe((Observable source, Observer observer) -> {
+            OperatorStats operator = stats(observer.getClass());
+            operator.subscribed.increment();
+            return new TracingObserver(observer, operator, this);
+        });
+        RxJavaPlugins.setOnFlowableSubscribe((Flowable source, org.reactivestreams.Subscriber subscriber) -> {
+            OperatorStats operator = stats(subscriber.getClass());
+            operator.subscribed.increment();
+            return new TracingSubscriber(subscriber, operator, this);
+        });
+    }
+
+    public synchronized void disable() {
+        enabled = false;
+        RxJavaPlugins.setOnObservableAssembly(null);
+        RxJavaPlugins.setOnFlowableAssembly(null);
+        RxJavaPlugins.setOnObservableSubscribe(null);
+        RxJavaPlugins.setOnFlowableSubscribe(null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    int sampleRate() {
+        return sampleRate;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * @return operators sorted by estimated total time, most expensive first
+     */
+    public List<OperatorStats> report() {
+        List<OperatorStats> report = new ArrayList<>(stats.values());
+        Collections.sort(report, new Comparator<OperatorStats>() {
+            @Override
+            public int compare(OperatorStats a, OperatorStats b) {
+                return Long.compare(b.estimatedTotalNanos(), a.estimatedTotalNanos());
+            }
+        });
+        return report;
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (OperatorStats operator : report()) {
+            sb.append(operator).append('\n');
+        }
+        return sb.toString();
+    }
+
+    OperatorStats stats(Class<?> type) {
+        String name = operatorName(type);
+        OperatorStats operator = stats.get(name);
+        if (operator == null) {
+            OperatorStats created = new OperatorStats(name);
+            operator = stats.putIfAbsent(name, created);
+            if (operator == null) {
+                operator = created;
+            }
+        }
+        return operator;
+    }
+
+    /**
+     * ObservableMap$MapObserver belongs to ObservableMap.
+     */
+    static String operatorName(Class<?> type) {
+        Class<?> outer = type;
+        while (outer.getEnclosingClass() != null) {
+            outer = outer.getEnclosingClass();
+        }
+        return outer.getSimpleName().isEmpty() ? outer.getName() : outer.getSimpleName();
+    }
+}
@@ -0,0 +1,57 @@
+package com.learning.rxjava.rx.tracing;
+
+/**
+ * Per thread stack of the probes currently inside an onNext. It lets a probe subtract the time of
+ * the probes nested in it (the operators further downstream) to get its own time, and makes a
+ * whole synchronous call chain sampled or not sampled together.
+ */
+final class TraceContext {
+
+    private static final int MAX_DEPTH = 256;
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<TraceContext>() {
+        @Override
+        protected TraceContext initialValue() {
+            return new TraceContext();
+        }
+    };
+
+    private final long[] childNanos = new long[MAX_DEPTH];
+    private int depth;
+    private boolean sampling;
+    private long rootCalls;
+
+    static TraceContext get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return true if this call is sampled and has to be timed
+     */
+    boolean enter(int sampleRate) {
+        if (depth == 0) {
+            sampling = rootCalls++ % sampleRate == 0;
+        }
+        if (depth < MAX_DEPTH) {
+            childNanos[depth] = 0;
+        }
+        depth++;
+        return sampling && depth <= MAX_DEPTH;
+    }
+
+    /**
+     * @return self time: inclusive minus the time of the nested probes
+     */
+    long exitSampled(long inclusiveNanos) {
+        depth--;
+        long self = inclusiveNanos - childNanos[depth];
+        if (depth > 0) {
+            childNanos[depth - 1] += inclusiveNanos;
+        }
+        return self;
+    }
+
+    void exit() {
+        depth--;
+    }
+}
@@ -0,0 +1,62 @@
+package com.learning.rxjava.rx.tracing;
+
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Sits in front of an operator's observer and times its onNext. The Disposable is passed on
+ * untouched, so fusion still works; fused sections simply aren't timed.
+ */
+final class TracingObserver<T> implements Observer<T> {
+
+    private final Observer<? super T> downstream;
+    private final OperatorStats stats;
+    private final OperatorTracer tracer;
+
+    TracingObserver(Observer<? super T> downstream, OperatorStats stats, OperatorTracer tracer) {
+        this.downstream = downstream;
+        this.stats = stats;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        downstream.onSubscribe(d);
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (!tracer.isEnabled()) {
+            downstream.onNext(t);
+            return;
+        }
+        stats.calls.increment();
+        TraceContext context = TraceContext.get();
+        if (!context.enter(tracer.sampleRate())) {
+            try {
+                downstream.onNext(t);
+            } finally {
+                context.exit();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            downstream.onNext(t);
+        } finally {
+            long self = context.exitSampled(System.nanoTime() - start);
+            stats.sampledCalls.increment();
+            stats.sampledSelfNanos.add(self);
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        downstream.onError(e);
+    }
+
+    @Override
+    public void onComplete() {
+        downstream.onComplete();
+    }
+}
@@ -0,0 +1,63 @@
+package com.learning.rxjava.rx.tracing;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.FlowableSubscriber;
+
+/**
+ * Flowable counterpart of {@link TracingObserver}.
+ */
+final class TracingSubscriber<T> implements FlowableSubscriber<T> {
+
+    private final Subscriber<? super T> downstream;
+    private final OperatorStats stats;
+    private final OperatorTracer tracer;
+
+    TracingSubscriber(Subscriber<? super T> downstream, OperatorStats stats, OperatorTracer tracer) {
+        this.downstream = downstream;
+        this.stats = stats;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        downstream.onSubscribe(s);
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (!tracer.isEnabled()) {
+            downstream.onNext(t);
+            return;
+        }
+        stats.calls.increment();
+        TraceContext context = TraceContext.get();
+        if (!context.enter(tracer.sampleRate())) {
+            try {
+                downstream.onNext(t);
+            } finally {
+                context.exit();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            downstream.onNext(t);
+        } finally {
+            long self = context.exitSampled(System.nanoTime() - start);
+            stats.sampledCalls.increment();
+            stats.sampledSelfNanos.add(self);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        downstream.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        downstream.onComplete();
+    }
+}
@@ -0,0 +1,78 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.rx.operators.BatchCompute;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A CPU bound compute() over 200k items: one item at a time behind observeOn(computation), the
+ * way BackPressure.understandingCoroutines() does it, versus BatchCompute on a pool of 1 to N
+ * threads. The work per item is a few microseconds of hashing instead of a Thread.sleep.
+ */
+public class BatchComputeBenchmark {
+
+    private static final int ITEMS = 200_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void scaling() {
+        long expected = Flowable.range(0, ITEMS).map(BatchComputeBenchmark::work)
+                .reduce(0L, Long::sum).blockingGet();
+
+        long perItem = best(() -> {
+            long sum = Flowable.range(0, ITEMS)
+                    .observeOn(Schedulers.computation())
+                    .map(BatchComputeBenchmark::work)
+                    .reduce(0L, Long::sum).blockingGet();
+            assertEquals(expected, sum);
+        });
+        System.out.println("per item on observeOn: " + perItem + " ms");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            BatchCompute<Integer, Long> batched = new BatchCompute.Builder<Integer, Long>(
+                    batch -> batch.parallelStream().mapToLong(BatchComputeBenchmark::work).sum(),
+                    Schedulers.computation())
+                    .closeAfter(1024, 10, TimeUnit.MILLISECONDS)
+                    .pool(pool)
+                    .maxBatches(threads * 2)
+                    .build();
+            long elapsed = best(() -> {
+                long sum = Flowable.range(0, ITEMS)
+                        .compose(batched)
+                        .reduce(0L, Long::sum).blockingGet();
+                assertEquals(expected, sum);
+            });
+            pool.shutdown();
+            System.out.println("BatchCompute, " + threads + " threads: " + elapsed + " ms");
+        }
+    }
+
+    private static long best(Runnable run) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return best;
+    }
+
+    static long work(int v) {
+        long h = v;
+        for (int i = 0; i < 500; i++) {
+            h = h * 6364136223846793005L + 1442695040888963407L;
+            h ^= h >>> 29;
+        }
+        return h & 0xFF;
+    }
+}
@@ -0,0 +1,78 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.network.RestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Throughput of RestClient.fetchGists() against a local stub server that answers every gist after
+ * a fixed delay, at 1, 8 and 32 concurrent requests.
+ */
+public class GistFetchBenchmark {
+
+    private static final int GISTS = 32;
+    private static final long SERVER_LATENCY_MS = 20;
+
+    private final MockWebServer server = new MockWebServer();
+    private RestClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        final String body = GistParsingBenchmark.gistJson(10);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                Thread.sleep(SERVER_LATENCY_MS);
+                return new MockResponse().setBody(body);
+            }
+        });
+        server.start();
+        client = new RestClient.Builder()
+                .maxIdleConnections(32)
+                .apiUrl(server.url("/").toString())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void throughputByConcurrency() {
+        fetch(8, false); // warm up connections and JIT
+
+        for (int concurrency : new int[]{1, 8, 32}) {
+            for (boolean ordered : new boolean[]{false, true}) {
+                long start = System.nanoTime();
+                List<Gist> gists = fetch(concurrency, ordered);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                assertEquals(GISTS, gists.size());
+                System.out.println("concurrency " + concurrency + (ordered ? " ordered" : "")
+                        + ": " + elapsedMs + " ms, " + (GISTS * 1000L / Math.max(1, elapsedMs))
+                        + " gists/s");
+            }
+        }
+    }
+
+    private List<Gist> fetch(int concurrency, boolean ordered) {
+        return client.fetchGists(Flowable.range(0, GISTS).map(String::valueOf), concurrency, ordered)
+                .toList()
+                .blockingGet();
+    }
+}
@@ -0,0 +1,65 @@
+package com.learning.rxjava.benchmark;
+
+import com.google.gson.Gson;
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistJson;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the previous way of parsing (a new Gson per call, reflective adapters) with the shared
+ * Gson and its hand-written TypeAdapters. Numbers are printed, only the parsed values are asserted.
+ */
+public class GistParsingBenchmark {
+
+    private static final int FILES = 200;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    static String gistJson(int files) {
+        StringBuilder sb = new StringBuilder(files * 160);
+        sb.append("{\"url\":\"https://api.github.com/gists/db72a05cc03ef523ee74\",\"files\":{");
+        for (int i = 0; i < files; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"file").append(i).append(".java\":{\"filename\":\"file").append(i)
+                    .append(".java\",\"type\":\"text/plain\",\"language\":\"Java\",")
+                    .append("\"truncated\":false,\"size\":").append(1000 + i)
+                    .append(",\"content\":\"public class File").append(i).append(" {}\"}");
+        }
+        sb.append("},\"public\":true,\"comments\":0,\"owner\":{\"login\":\"donnfelker\",")
+                .append("\"id\":15826,\"site_admin\":false},\"history\":[{\"version\":\"1\"}]}");
+        return sb.toString();
+    }
+
+    @Test
+    public void reflectiveVsTypeAdapters() {
+        String json = gistJson(FILES);
+
+        Gist reflective = new Gson().fromJson(json, Gist.class);
+        Gist adapted = GistJson.gson().fromJson(json, Gist.class);
+        assertEquals(reflective.files.size(), adapted.files.size());
+        assertEquals(reflective.files.get("file7.java").size, adapted.files.get("file7.java").size);
+        assertEquals(reflective.owner.get("login"), adapted.owner.get("login"));
+
+        long reflectiveNs = measure(() -> new Gson().fromJson(json, Gist.class));
+        long adaptedNs = measure(() -> GistJson.gson().fromJson(json, Gist.class));
+
+        System.out.println("reflective, new Gson per call: " + reflectiveNs / 1000 + " us/op");
+        System.out.println("shared Gson + TypeAdapters:    " + adaptedNs / 1000 + " us/op");
+    }
+
+    private static long measure(Runnable parse) {
+        for (int i = 0; i < WARMUP; i++) {
+            parse.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parse.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
@@ -0,0 +1,74 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.fragments.GistRenderer;
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistFile;
+import com.learning.rxjava.models.GistJson;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import io.reactivex.functions.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Bytes allocated per rendered gist by GistRenderer versus the StringBuilder loop IntroFragment
+ * used before, measured with the HotSpot per thread allocation counter.
+ */
+public class GistRendererBenchmark {
+
+    private static final int ITERATIONS = 2000;
+
+    private static final Function<Gist, String> PREVIOUS = gist -> {
+        StringBuilder sb1 = new StringBuilder();
+        for (Map.Entry<String, String> owner : gist.owner.entrySet()) {
+            if (owner.getKey().equals("login")) {
+                sb1.append(owner.getKey());
+                sb1.append(" : ");
+                sb1.append(owner.getValue());
+            }
+        }
+        sb1.append("\n\n\n");
+        for (Map.Entry<String, GistFile> entry : gist.files.entrySet()) {
+            sb1.append(entry.getKey());
+            sb1.append(" - ");
+            sb1.append("Length of file ");
+            sb1.append(entry.getValue().size);
+            sb1.append("\n");
+        }
+        return sb1.toString();
+    };
+
+    @Test
+    public void allocationsPerRender() throws Exception {
+        Gist gist = GistJson.gson().fromJson(GistParsingBenchmark.gistJson(200), Gist.class);
+        assertEquals(PREVIOUS.apply(gist), GistRenderer.render(gist).toString());
+
+        long previous = allocatedPerCall(() -> PREVIOUS.apply(gist));
+        long renderer = allocatedPerCall(() -> GistRenderer.render(gist));
+
+        System.out.println("previous loop + toString(): " + previous + " bytes/render");
+        System.out.println("GistRenderer:               " + renderer + " bytes/render");
+    }
+
+    private static long allocatedPerCall(Render render) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < ITERATIONS; i++) {
+            render.run();
+        }
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < ITERATIONS; i++) {
+            render.run();
+        }
+        return (threads.getThreadAllocatedBytes(id) - before) / ITERATIONS;
+    }
+
+    private interface Render {
+        void run() throws Exception;
+    }
+}
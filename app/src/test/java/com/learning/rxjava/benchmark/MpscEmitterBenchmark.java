@@ -0,0 +1,78 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.rx.sources.MpscObservable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.functions.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Throughput of create(...).serialize() versus MpscObservable with 1 to N threads calling
+ * onNext at the same time, the way SchedulingThreading.investigateSingleThreaded() pushes into
+ * a subject from several threads, only without the synchronized block around it.
+ */
+public class MpscEmitterBenchmark {
+
+    private static final int ITEMS_PER_PRODUCER = 500_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void contention() throws Exception {
+        int maxProducers = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        for (int producers = 1; producers <= maxProducers; producers *= 2) {
+            long serialized = run(producers, source -> Observable.create(source).serialize());
+            long mpsc = run(producers, MpscObservable::create);
+            System.out.println(producers + " producers: serialize() " + serialized
+                    + " ms, MpscObservable " + mpsc + " ms");
+        }
+    }
+
+    private static long run(int producers,
+                            Function<ObservableOnSubscribe<Integer>, Observable<Integer>> create)
+            throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            CountDownLatch start = new CountDownLatch(1);
+            long[] sum = new long[1];
+            long[] elapsed = new long[1];
+            create.apply(emitter -> {
+                List<Thread> threads = new ArrayList<>();
+                for (int p = 0; p < producers; p++) {
+                    threads.add(new Thread(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int i = 0; i < ITEMS_PER_PRODUCER; i++) {
+                            emitter.onNext(1);
+                        }
+                    }));
+                }
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                emitter.onComplete();
+                elapsed[0] = System.nanoTime() - begin;
+            }).subscribe(v -> sum[0] += v);
+
+            assertEquals((long) producers * ITEMS_PER_PRODUCER, sum[0]);
+            best = Math.min(best, TimeUnit.NANOSECONDS.toMillis(elapsed[0]));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,79 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.rx.operators.Rails;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The Flowable.range(1, 1_000_000) workload of BackPressure with a small CPU bound compute() per
+ * item: observeOn(computation) as the demos do it, versus Rails with 1 to N rails, unordered and
+ * ordered. Ordered runs also check every value comes out in place.
+ */
+public class RailsBenchmark {
+
+    private static final int ITEMS = 1_000_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void scaling() {
+        long observeOn = best(() -> Flowable.range(1, ITEMS)
+                .observeOn(Schedulers.computation())
+                .map(RailsBenchmark::compute), false);
+        System.out.println("observeOn: " + observeOn + " ms");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int rails = 1; rails <= Math.max(2, cores); rails *= 2) {
+            for (boolean ordered : new boolean[]{false, true}) {
+                Rails<Integer, Integer> parallel = new Rails.Builder<Integer, Integer>(
+                        RailsBenchmark::compute, Schedulers.computation())
+                        .rails(rails)
+                        .ordered(ordered)
+                        .build();
+                long elapsed = best(() -> Flowable.range(1, ITEMS).compose(parallel), ordered);
+                System.out.println(rails + " rails, " + (ordered ? "ordered" : "unordered") + ": "
+                        + elapsed + " ms");
+            }
+        }
+    }
+
+    private interface Pipeline {
+        Flowable<Integer> build();
+    }
+
+    private static long best(Pipeline pipeline, boolean checkOrder) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] state = new long[2];
+            long start = System.nanoTime();
+            pipeline.build().blockingSubscribe(v -> {
+                state[0] += v;
+                if (checkOrder) {
+                    assertEquals(++state[1], (long) v);
+                }
+            });
+            best = Math.min(best, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            assertEquals((long) ITEMS * (ITEMS + 1) / 2, state[0]);
+        }
+        return best;
+    }
+
+    /**
+     * A couple of microseconds of hashing; the result only decides something that never happens
+     * so the JIT can't drop it.
+     */
+    static int compute(int v) {
+        long h = v;
+        for (int i = 0; i < 100; i++) {
+            h = h * 6364136223846793005L + 1442695040888963407L;
+            h ^= h >>> 29;
+        }
+        return h == 42 ? -v : v;
+    }
+}
@@ -0,0 +1,66 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.rx.operators.RunningStats;
+import com.learning.rxjava.rx.operators.RunningStatsOperator;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import io.reactivex.Observable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Bytes allocated per item by the scan() based running average CustomOperators used before versus
+ * RunningStatsOperator. The source emits preboxed Integers so only the accumulator is measured.
+ */
+public class RunningStatsBenchmark {
+
+    private static final int ITEMS = 1_000_000;
+
+    private static final class AverageAcc {
+        final int sum;
+        final int count;
+
+        AverageAcc(int sum, int count) {
+            this.sum = sum;
+            this.count = count;
+        }
+    }
+
+    @Test
+    public void allocationsPerItem() {
+        Integer[] values = new Integer[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            values[i] = i & 127;
+        }
+        Observable<Integer> source = Observable.fromArray(values);
+        long[] count = new long[1];
+
+        Runnable scan = () -> source
+                .scan(new AverageAcc(0, 0), (acc, v) -> new AverageAcc(acc.sum + v, acc.count + 1))
+                .subscribe(acc -> count[0] = acc.count);
+        Runnable operator = () -> source
+                .lift(RunningStatsOperator.<Integer>create())
+                .subscribe(stats -> count[0] = stats.count());
+
+        scan.run();
+        assertEquals(ITEMS, count[0]);
+        operator.run();
+        assertEquals(ITEMS, count[0]);
+
+        System.out.println("scan + AverageAcc:    " + allocatedPerItem(scan) + " bytes/item");
+        System.out.println("RunningStatsOperator: " + allocatedPerItem(operator) + " bytes/item");
+    }
+
+    private static double allocatedPerItem(Runnable pipeline) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        pipeline.run();
+        long before = threads.getThreadAllocatedBytes(id);
+        pipeline.run();
+        return (threads.getThreadAllocatedBytes(id) - before) / (double) ITEMS;
+    }
+}
@@ -0,0 +1,84 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.rx.operators.SpillingBackpressureBuffer;
+import com.learning.rxjava.rx.spill.Serializer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.DefaultSubscriber;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Heap held while a 10M item burst waits for a consumer that hasn't requested anything yet:
+ * onBackpressureBuffer() versus SpillingBackpressureBuffer with 1024 items in memory.
+ */
+public class SpillingBufferBenchmark {
+
+    private static final int BURST = 10_000_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void heapDuringBurst() throws Exception {
+        long unbounded = heldDuringBurst(Flowable.range(0, BURST).onBackpressureBuffer());
+        long spilling = heldDuringBurst(Flowable.range(0, BURST).compose(
+                new SpillingBackpressureBuffer<>(1024, folder.newFolder(), 8 * 1024 * 1024, Serializer.INTEGER)));
+
+        System.out.println("onBackpressureBuffer():     " + unbounded / (1024 * 1024) + " MB held");
+        System.out.println("SpillingBackpressureBuffer: " + spilling / (1024 * 1024) + " MB held");
+    }
+
+    private static long heldDuringBurst(Flowable<Integer> buffered) {
+        long before = usedHeap();
+        CountingSubscriber subscriber = new CountingSubscriber();
+        buffered.subscribe(subscriber);
+        long held = usedHeap() - before;
+
+        subscriber.requestAll();
+        assertEquals(BURST, subscriber.count);
+        assertEquals((long) BURST * (BURST - 1) / 2, subscriber.sum);
+        return held;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class CountingSubscriber extends DefaultSubscriber<Integer> {
+        long count;
+        long sum;
+
+        @Override
+        protected void onStart() {
+            // nothing requested: the whole burst gets buffered
+        }
+
+        void requestAll() {
+            request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Integer v) {
+            count++;
+            sum += v;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new AssertionError(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.learning.rxjava.benchmark;
+
+import com.learning.rxjava.introtorxtutorials.part3_taming_sequence.FindWorldLengthOperator;
+import com.learning.rxjava.introtorxtutorials.part3_taming_sequence.IntWorldLengthOperator;
+import com.learning.rxjava.rx.observers.IntObserver;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableOperator;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+import kotlin.jvm.functions.Function1;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The previous lift()-based FindWorldLengthOperator, the fused one, its int variant and a plain
+ * map() over the same words. Each is run once subscribed directly and once behind concatMap(),
+ * which asks its source for sync fusion. The int variant is also timed into an IntObserver, the
+ * one case where no Integer is created at all.
+ *
+ * The previous operator only runs directly: it passes the Disposable of fromArray() through, so
+ * concatMap fuses with fromArray() and polls Strings where it expects Integers.
+ */
+public class WordLengthOperatorBenchmark {
+
+    private static final int WORDS = 200_000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void compareOperators() {
+        String[] words = new String[WORDS];
+        long expected = 0;
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = "word" + i;
+            expected += words[i].length();
+        }
+        Observable<String> source = Observable.fromArray(words);
+
+        Variant[] variants = {
+                new Variant("previous lift", s -> s.lift(new PreviousOperator(String::length)), false),
+                new Variant("fused lift", s -> s.lift(new FindWorldLengthOperator(String::length)), true),
+                new Variant("int lift", s -> s.lift(new IntWorldLengthOperator(String::length)), true),
+                new Variant("map", s -> s.map(String::length), true),
+        };
+        for (Variant variant : variants) {
+            assertEquals(expected, variant.sum(source, false));
+            if (variant.fuseable) {
+                assertEquals(expected, variant.sum(source, true));
+            }
+        }
+        for (Variant variant : variants) {
+            System.out.println(variant.name + ": "
+                    + variant.time(source, false) + " us direct, "
+                    + (variant.fuseable ? variant.time(source, true) + " us" : "n/a")
+                    + " behind concatMap");
+        }
+
+        // the only path without an Integer: the int variant straight into an IntObserver
+        Observable<Integer> intLengths = source.lift(new IntWorldLengthOperator(String::length));
+        assertEquals(expected, sumInts(intLengths));
+        for (int i = 0; i < ROUNDS; i++) {
+            sumInts(intLengths);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sumInts(intLengths);
+        }
+        System.out.println("int lift into an IntObserver: "
+                + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ROUNDS + " us direct");
+    }
+
+    private static long sumInts(Observable<Integer> lengths) {
+        IntSum sum = new IntSum();
+        lengths.subscribe(sum);
+        return sum.sum;
+    }
+
+    private static final class IntSum implements IntObserver {
+        long sum;
+
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNextInt(int value) {
+            sum += value;
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            onNextInt(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new AssertionError(e);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static final class Variant {
+        final String name;
+        final Function<Observable<String>, Observable<Integer>> operator;
+        final boolean fuseable;
+
+        Variant(String name, Function<Observable<String>, Observable<Integer>> operator,
+                boolean fuseable) {
+            this.name = name;
+            this.operator = operator;
+            this.fuseable = fuseable;
+        }
+
+        long sum(Observable<String> source, boolean concatMap) {
+            try {
+                Observable<Integer> lengths = operator.apply(source);
+                if (concatMap) {
+                    lengths = lengths.concatMap(Observable::just);
+                }
+                return lengths.reduce(0L, (acc, v) -> acc + v).blockingGet();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        long time(Observable<String> source, boolean concatMap) {
+            for (int i = 0; i < ROUNDS; i++) {
+                sum(source, concatMap);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                sum(source, concatMap);
+            }
+            return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ROUNDS;
+        }
+    }
+
+    /**
+     * FindWorldLengthOperator before it took part in fusion.
+     */
+    private static final class PreviousOperator implements ObservableOperator<Integer, String> {
+        private final Function1<String, Integer> transformer;
+
+        PreviousOperator(Function1<String, Integer> transformer) {
+            this.transformer = transformer;
+        }
+
+        @Override
+        public Observer<? super String> apply(Observer<? super Integer> child) {
+            return new Observer<String>() {
+                @Override
+                public void onSubscribe(Disposable d) {
+                    child.onSubscribe(d);
+                }
+
+                @Override
+                public void onNext(String s) {
+                    child.onNext(transformer.invoke(s));
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    child.onError(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    child.onComplete();
+                }
+            };
+        }
+    }
+}
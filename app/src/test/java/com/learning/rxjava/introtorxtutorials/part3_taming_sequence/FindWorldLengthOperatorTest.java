@@ -0,0 +1,174 @@
+package com.learning.rxjava.introtorxtutorials.part3_taming_sequence;
+
+import com.learning.rxjava.rx.observers.IntObserver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableOperator;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.fuseable.QueueDisposable;
+import io.reactivex.subjects.UnicastSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FindWorldLengthOperatorTest {
+
+    private static final ObservableOperator<Integer, String> BOXED =
+            new FindWorldLengthOperator(String::length);
+    private static final ObservableOperator<Integer, String> INT =
+            new IntWorldLengthOperator(String::length);
+
+    @Test
+    public void syncFusionAppliesTheTransformerInPoll() {
+        for (ObservableOperator<Integer, String> operator : new ObservableOperator[]{BOXED, INT}) {
+            FusingObserver observer = new FusingObserver(QueueDisposable.ANY);
+            Observable.just("Wahib", "ul", "Haq").lift(operator).subscribe(observer);
+
+            assertEquals(QueueDisposable.SYNC, observer.mode);
+            assertEquals(3, observer.values.size());
+            assertEquals(Integer.valueOf(5), observer.values.get(0));
+            assertEquals(Integer.valueOf(3), observer.values.get(2));
+        }
+    }
+
+    @Test
+    public void asyncFusionPollsAfterTheSignal() {
+        for (ObservableOperator<Integer, String> operator : new ObservableOperator[]{BOXED, INT}) {
+            UnicastSubject<String> subject = UnicastSubject.create();
+            FusingObserver observer = new FusingObserver(QueueDisposable.ASYNC);
+            subject.lift(operator).subscribe(observer);
+            subject.onNext("abcd");
+            subject.onComplete();
+
+            assertEquals(QueueDisposable.ASYNC, observer.mode);
+            assertEquals(Integer.valueOf(4), observer.values.get(0));
+            assertTrue(observer.completed);
+        }
+    }
+
+    @Test
+    public void boundaryFusionIsRefused() {
+        FusingObserver observer = new FusingObserver(QueueDisposable.ANY | QueueDisposable.BOUNDARY);
+        Observable.just("Wahib").lift(BOXED).subscribe(observer);
+
+        assertEquals(QueueDisposable.NONE, observer.mode);
+        assertEquals(Integer.valueOf(5), observer.values.get(0));
+    }
+
+    @Test
+    public void intObserverGetsPrimitiveInts() {
+        IntCollector observer = new IntCollector();
+        Observable.just("Wahib", "ul", "Haq").lift(INT).subscribe(observer);
+
+        assertEquals(Arrays.asList(5, 2, 3), observer.ints);
+        assertEquals(0, observer.boxed);
+        assertTrue(observer.completed);
+    }
+
+    @Test
+    public void transformerErrorsAreDelivered() {
+        Observable.just("Wahib", "ul")
+                .lift(new FindWorldLengthOperator(s -> {
+                    throw new IllegalArgumentException(s);
+                }))
+                .test()
+                .assertNoValues()
+                .assertError(IllegalArgumentException.class);
+    }
+
+    private static final class IntCollector implements IntObserver {
+        final List<Integer> ints = new ArrayList<>();
+        int boxed;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNextInt(int value) {
+            ints.add(value);
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            boxed++;
+            onNextInt(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new AssertionError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    /**
+     * Requests fusion like observeOn or concatMap do, then drains the queue.
+     */
+    private static final class FusingObserver implements Observer<Integer> {
+        final int requested;
+        final List<Integer> values = new ArrayList<>();
+        QueueDisposable<Integer> queue;
+        int mode;
+        boolean completed;
+
+        FusingObserver(int requested) {
+            this.requested = requested;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSubscribe(Disposable d) {
+            queue = (QueueDisposable<Integer>) d;
+            mode = queue.requestFusion(requested);
+            if (mode == QueueDisposable.SYNC) {
+                drain();
+                completed = true;
+            }
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            if (mode == QueueDisposable.ASYNC) {
+                drain();
+            } else {
+                values.add(value);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new AssertionError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (mode == QueueDisposable.ASYNC) {
+                drain();
+            }
+            completed = true;
+        }
+
+        private void drain() {
+            try {
+                for (Integer v = queue.poll(); v != null; v = queue.poll()) {
+                    values.add(v);
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
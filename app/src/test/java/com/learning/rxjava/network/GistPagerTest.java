@@ -0,0 +1,52 @@
+package com.learning.rxjava.network;
+
+import com.learning.rxjava.models.Gist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+
+public class GistPagerTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private RestClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        client = new RestClient.Builder()
+                .apiUrl(server.url("/").toString())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void nextPageIsOnlyFetchedWhenRequested() throws Exception {
+        server.enqueue(new MockResponse().setBody("[{\"files\":{}},{\"files\":{}}]"));
+        server.enqueue(new MockResponse().setBody("[{\"files\":{}}]"));
+
+        TestSubscriber<Gist> subscriber = client.listGists("donnfelker", 2).test(0);
+
+        subscriber.request(2);
+        subscriber.awaitCount(2);
+        Thread.sleep(100);
+        assertEquals(1, server.getRequestCount());
+        assertEquals("/users/donnfelker/gists?page=1&per_page=2", server.takeRequest().getPath());
+
+        subscriber.request(10);
+        subscriber.awaitTerminalEvent();
+        subscriber.assertValueCount(3).assertComplete();
+        assertEquals(2, server.getRequestCount());
+        assertEquals("/users/donnfelker/gists?page=2&per_page=2", server.takeRequest().getPath());
+    }
+}
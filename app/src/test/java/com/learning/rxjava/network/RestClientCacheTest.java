@@ -0,0 +1,101 @@
+package com.learning.rxjava.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RestClientCacheTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private RestClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        File cacheDir = Files.createTempDirectory("http-cache").toFile();
+        client = new RestClient.Builder()
+                .cache(cacheDir, 1024 * 1024)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void staleResponseIsRevalidatedWithEtag() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "max-age=0")
+                .setBody("{\"files\":{}}"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        assertEquals("{\"files\":{}}", fetch());
+        assertEquals("{\"files\":{}}", fetch());
+
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+
+        assertEquals(1, client.cacheStats().misses());
+        assertEquals(1, client.cacheStats().revalidations());
+        assertEquals(0, client.cacheStats().hits());
+    }
+
+    @Test
+    public void changedContentOnRevalidationIsAMiss() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "max-age=0")
+                .setBody("v1"));
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v2\"")
+                .setHeader("Cache-Control", "max-age=0")
+                .setBody("v2"));
+
+        assertEquals("v1", fetch());
+        assertEquals("v2", fetch());
+
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+
+        assertEquals(2, client.cacheStats().misses());
+        assertEquals(0, client.cacheStats().revalidations());
+        assertEquals(0, client.cacheStats().hits());
+    }
+
+    @Test
+    public void freshResponseIsServedWithoutNetwork() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "max-age=60")
+                .setBody("gist"));
+
+        assertEquals("gist", fetch());
+        assertEquals("gist", fetch());
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, client.cacheStats().misses());
+        assertEquals(1, client.cacheStats().hits());
+    }
+
+    private String fetch() {
+        Request request = new Request.Builder()
+                .url(server.url("/gists/db72a05cc03ef523ee74"))
+                .build();
+        return client.single(request, ResponseBody::string).blockingGet();
+    }
+}
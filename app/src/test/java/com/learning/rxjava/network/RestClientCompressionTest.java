@@ -0,0 +1,62 @@
+package com.learning.rxjava.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RestClientCompressionTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private final RestClient client = new RestClient.Builder().build();
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void gzipBodyIsInflatedOnComputationThread() throws Exception {
+        StringBuilder json = new StringBuilder("{\"files\":\"");
+        for (int i = 0; i < 1000; i++) {
+            json.append("aaaaaaaaaa");
+        }
+        json.append("\"}");
+
+        Buffer gzipped = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(gzipped))) {
+            sink.writeUtf8(json.toString());
+        }
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Encoding", "gzip")
+                .setBody(gzipped));
+
+        String[] parseThread = new String[1];
+        Request request = new Request.Builder().url(server.url("/gists/1")).build();
+        String body = client.compressed(request, responseBody -> {
+            parseThread[0] = Thread.currentThread().getName();
+            return responseBody.string();
+        }).blockingGet();
+
+        assertEquals(json.toString(), body);
+        assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+        assertTrue(parseThread[0], parseThread[0].startsWith("RxComputation"));
+        assertEquals(json.length(), client.transferStats().decodedBytes());
+        assertTrue(client.transferStats().wireBytes() < client.transferStats().decodedBytes());
+    }
+}
@@ -0,0 +1,165 @@
+package com.learning.rxjava.repository;
+
+import com.learning.rxjava.models.Gist;
+import com.learning.rxjava.models.GistFile;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.SingleSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GistRepositoryTest {
+
+    private final TestScheduler clock = new TestScheduler();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final SingleSubject<Gist> network = SingleSubject.create();
+
+    private final GistRepository repository = new GistRepository(id -> {
+        fetches.incrementAndGet();
+        return network;
+    }, 2, 5, TimeUnit.MINUTES, clock);
+
+    @Test
+    public void concurrentSubscribersShareOneFetch() {
+        TestObserver<Gist> first = repository.getGist("a").test();
+        TestObserver<Gist> second = repository.getGist("a").test();
+
+        Gist gist = new Gist();
+        network.onSuccess(gist);
+
+        first.assertValue(gist);
+        second.assertValue(gist);
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void cachedGistIsServedUntilTtlExpires() {
+        Gist gist = new Gist();
+        repository.put("a", gist);
+
+        repository.getGist("a").test().assertValue(gist);
+        assertEquals(0, fetches.get());
+
+        clock.advanceTimeBy(6, TimeUnit.MINUTES);
+        assertNull(repository.getCached("a"));
+        repository.getGist("a").test().assertNoValues();
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        Gist a = new Gist();
+        repository.put("a", a);
+        repository.put("b", new Gist());
+        assertSame(a, repository.getCached("a"));
+
+        repository.put("c", new Gist());
+
+        assertNotNull(repository.getCached("a"));
+        assertNull(repository.getCached("b"));
+    }
+
+    @Test
+    public void failedFetchIsNotCoalescedWithTheRetry() {
+        GistRepository failing = new GistRepository(id -> {
+            fetches.incrementAndGet();
+            return Single.error(new RuntimeException("offline"));
+        }, 2, 5, TimeUnit.MINUTES, clock);
+
+        failing.getGist("a").test().assertError(RuntimeException.class);
+        failing.getGist("a").test().assertError(RuntimeException.class);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void storedCopyIsEmittedAndOnlyChangedContentAfterIt() throws Exception {
+        GistDiskStore store = new GistDiskStore(Files.createTempDirectory("gists").toFile());
+        store.write("a", gist("v1"));
+
+        GistRepository same = new GistRepository(id -> Single.just(gist("v1")), store,
+                2, 5, TimeUnit.MINUTES, clock);
+        same.observeGist("a").test().awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(1).assertComplete();
+
+        GistRepository changed = new GistRepository(id -> Single.just(gist("v2")), store,
+                2, 5, TimeUnit.MINUTES, clock);
+        TestObserver<Gist> observer = changed.observeGist("a").test().awaitDone(5, TimeUnit.SECONDS);
+        observer.assertValueCount(2).assertComplete();
+        assertEquals("v1", observer.values().get(0).owner.get("login"));
+        assertEquals("v2", observer.values().get(1).owner.get("login"));
+    }
+
+    @Test
+    public void storedCopyIsEnoughWhenOffline() throws Exception {
+        GistDiskStore store = new GistDiskStore(Files.createTempDirectory("gists").toFile());
+        store.write("a", gist("v1"));
+
+        GistRepository offline = new GistRepository(
+                id -> Single.error(new IOException("offline")), store, 2, 5, TimeUnit.MINUTES, clock);
+
+        offline.observeGist("a").test().awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(1).assertNoErrors().assertComplete();
+        offline.observeGist("b").test().awaitDone(5, TimeUnit.SECONDS)
+                .assertError(IOException.class);
+    }
+
+    @Test
+    public void concurrentWritesOfOneGistNeverLeaveAPartialFile() throws Exception {
+        File directory = Files.createTempDirectory("gists").toFile();
+        GistDiskStore store = new GistDiskStore(directory);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            String login = "writer" + w;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        store.write("a", gist(login));
+                        assertNotNull(store.read("a"));
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals(1, directory.list().length);
+    }
+
+    private static Gist gist(String login) {
+        Gist gist = new Gist();
+        gist.owner = new HashMap<>();
+        gist.owner.put("login", login);
+        gist.files = new HashMap<>();
+        GistFile file = new GistFile();
+        file.filename = "a.java";
+        file.size = 42;
+        gist.files.put(file.filename, file);
+        return gist;
+    }
+}
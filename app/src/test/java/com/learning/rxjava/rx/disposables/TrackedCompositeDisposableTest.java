@@ -0,0 +1,105 @@
+package com.learning.rxjava.rx.disposables;
+
+import com.learning.rxjava.introtorxtutorials.BaseRxObs;
+import com.learning.rxjava.rx.observers.RecordingObserver;
+import com.learning.rxjava.rx.observers.RecordingSubscriber;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrackedCompositeDisposableTest {
+
+    private final List<TrackedCompositeDisposable.Tracked> leaks = new ArrayList<>();
+    private final TrackedCompositeDisposable container = new TrackedCompositeDisposable("demo",
+            (scope, leaked) -> leaks.addAll(leaked));
+
+    @Test
+    public void reportsOnlyWhatIsStillRunningOnClear() {
+        TestScheduler scheduler = new TestScheduler();
+        Disposable interval = Observable.interval(1, TimeUnit.SECONDS, scheduler).subscribe();
+        container.add(interval);
+        container.add(Observable.range(1, 10).subscribe());
+
+        assertEquals(1, container.live().size());
+        TrackedCompositeDisposable.Tracked live = container.live().get(0);
+        assertEquals("demo", live.scope());
+        assertEquals(getClass().getName(), live.site().getClassName());
+        assertEquals("reportsOnlyWhatIsStillRunningOnClear", live.site().getMethodName());
+
+        container.clear();
+        assertEquals(1, leaks.size());
+        assertTrue(interval.isDisposed());
+        assertTrue(container.live().isEmpty());
+
+        // still usable after clear, like CompositeDisposable
+        assertTrue(container.add(Observable.never().subscribe()));
+        container.dispose();
+        assertEquals(2, leaks.size());
+
+        Disposable late = Observable.never().subscribe();
+        assertFalse(container.add(late));
+        assertTrue(late.isDisposed());
+    }
+
+    @Test
+    public void deleteForgetsWithoutDisposing() {
+        Disposable never = Observable.never().subscribe();
+        container.add(never);
+        assertTrue(container.delete(never));
+        container.clear();
+
+        assertTrue(leaks.isEmpty());
+        assertFalse(never.isDisposed());
+        never.dispose();
+    }
+
+    @Test
+    public void finishedRecordingObserversAreNotLeaks() {
+        RecordingDemo demo = new RecordingDemo();
+        container.add(Observable.just(1).subscribeWith(demo.observer()));
+        container.add(Flowable.just(1).subscribeWith(demo.subscriber()));
+        assertTrue(container.live().isEmpty());
+
+        container.clear();
+        assertTrue(leaks.isEmpty());
+    }
+
+    @Test
+    public void finishedSubscriptionsArePruned() {
+        RecordingDemo demo = new RecordingDemo();
+        for (int i = 0; i < 1000; i++) {
+            container.add(Observable.just(i).subscribeWith(demo.observer()));
+        }
+        Disposable never = Observable.never().subscribe();
+        container.add(never);
+
+        assertEquals(1, container.live().size());
+        container.dispose();
+        assertEquals(1, leaks.size());
+    }
+
+    /**
+     * Hands out the observers the demos subscribe with.
+     */
+    private static final class RecordingDemo extends BaseRxObs {
+        RecordingObserver<Integer> observer() {
+            return intDisposableObserver();
+        }
+
+        RecordingSubscriber<Integer> subscriber() {
+            return intDisposableSubscriber();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.learning.rxjava.rx.logging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLogSinkTest {
+
+    /**
+     * Only touched by the writer thread, read after awaitDrained().
+     */
+    private static final class CollectingBackend implements LogBackend {
+        final List<String> messages = new ArrayList<>();
+        final CountDownLatch release;
+        int flushes;
+
+        CollectingBackend(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(String tag, String message) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            messages.add(tag + "/" + message);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    @Test
+    public void recordsFromManyProducersAreWrittenInProducerOrder() throws Exception {
+        CollectingBackend backend = new CollectingBackend(new CountDownLatch(0));
+        AsyncLogSink sink = new AsyncLogSink(backend, 100_000, 64);
+
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            final String name = "p" + p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    sink.log("T", name + " : ", i);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(sink.awaitDrained(5, TimeUnit.SECONDS));
+        assertEquals(4000, backend.messages.size());
+        assertEquals(0, sink.dropped());
+        assertTrue(backend.flushes < 4000);
+
+        int next = 0;
+        for (String message : backend.messages) {
+            if (message.startsWith("T/p2 : ")) {
+                assertEquals("T/p2 : " + next++, message);
+            }
+        }
+        assertEquals(1000, next);
+        sink.shutdown();
+    }
+
+    @Test
+    public void fullQueueDropsAndCounts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingBackend backend = new CollectingBackend(release);
+        AsyncLogSink sink = new AsyncLogSink(backend, 10, 4);
+
+        for (int i = 0; i < 100; i++) {
+            sink.log("T", "m", i);
+        }
+        release.countDown();
+
+        assertTrue(sink.awaitDrained(5, TimeUnit.SECONDS));
+        assertEquals(100, sink.dropped() + backend.messages.size());
+        assertTrue(sink.dropped() >= 89);
+        sink.shutdown();
+    }
+
+    @Test
+    public void mutableValuesAreLoggedAsTheyWereAtTheCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingBackend backend = new CollectingBackend(release);
+        AsyncLogSink sink = new AsyncLogSink(backend, 100, 4);
+
+        StringBuilder value = new StringBuilder("before");
+        sink.log("T", "v : ", value);
+        value.setLength(0);
+        value.append("after");
+        release.countDown();
+
+        assertTrue(sink.awaitDrained(5, TimeUnit.SECONDS));
+        assertEquals("T/v : before", backend.messages.get(0));
+        sink.shutdown();
+    }
+
+    @Test
+    public void backendFailuresAreCountedAsDropped() throws Exception {
+        List<String> messages = new ArrayList<>();
+        LogBackend backend = new LogBackend() {
+            @Override
+            public void write(String tag, String message) {
+                if (message.endsWith("1")) {
+                    throw new IllegalStateException();
+                }
+                messages.add(message);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        AsyncLogSink sink = new AsyncLogSink(backend, 100, 4);
+
+        for (int i = 0; i < 3; i++) {
+            sink.log("T", "m", i);
+        }
+
+        assertTrue(sink.awaitDrained(5, TimeUnit.SECONDS));
+        assertEquals(1, sink.dropped());
+        assertEquals(Arrays.asList("m0", "m2"), messages);
+        sink.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package com.learning.rxjava.rx.metrics;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    public void stageCountsItemsErrorsAndLifetimes() {
+        Flowable.range(1, 1000)
+                .compose(registry.<Integer>stage("range"))
+                .test()
+                .assertValueCount(1000);
+        Observable.error(new IllegalStateException())
+                .compose(registry.stage("failing"))
+                .test()
+                .assertError(IllegalStateException.class);
+
+        StageMetrics range = registry.metrics("range");
+        assertEquals(1000, range.items());
+        assertEquals(999, range.onNextIntervals().count());
+        assertEquals(1, range.subscriptionLifetimes().count());
+        assertEquals(0, range.activeSubscriptions());
+        assertEquals(1, registry.metrics("failing").errors());
+
+        assertEquals(2, registry.snapshot().size());
+        assertTrue(registry.dump(), registry.dump().startsWith("failing: items=0"));
+    }
+
+    @Test
+    public void railsRecordIntoOneMetricsEach() {
+        Flowable.range(1, 1000)
+                .parallel(4)
+                .compose(registry.<Integer>rails("rails"))
+                .sequential()
+                .test()
+                .assertValueCount(1000);
+
+        long items = 0;
+        for (int rail = 0; rail < 4; rail++) {
+            StageMetrics metrics = registry.metrics(InstrumentedRails.railName("rails", rail));
+            assertEquals(0, metrics.activeSubscriptions());
+            assertEquals(1, metrics.subscriptionLifetimes().count());
+            items += metrics.items();
+        }
+        assertEquals(1000, items);
+        assertEquals(4, registry.snapshot().size());
+    }
+
+    @Test
+    public void histogramPercentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+
+        assertEquals(127, histogram.percentile(50));
+        assertEquals(127, histogram.percentile(99));
+        assertEquals(8191, histogram.percentile(100));
+        assertEquals(5000, histogram.max());
+    }
+}
@@ -0,0 +1,88 @@
+package com.learning.rxjava.rx.observers;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecordingObserverTest {
+
+    private final List<String> reports = new ArrayList<>();
+    private final RingSink.Reporter reporter = sink -> reports.add(sink.describe());
+
+    @Test
+    public void ringKeepsTheLastValues() {
+        NumberSink<Integer> sink = new NumberSink<>("range", 4, reporter);
+        Observable.range(1, 10).subscribeWith(new RecordingObserver<>(sink));
+
+        assertEquals(10, sink.count());
+        assertEquals(4, sink.size());
+        assertEquals(7, sink.values().get(0));
+        assertEquals(10, sink.values().get(3));
+        assertEquals("range onNext: [7, 8, 9, 10] (6 older values overwritten) onComplete",
+                reports.get(0));
+    }
+
+    @Test
+    public void singleAndFlowableShareTheFamily() {
+        Single.just(true).subscribeWith(new RecordingObserver<>(new BooleanSink("single", 4, reporter)));
+        Flowable.just("a", "b").subscribeWith(
+                new RecordingSubscriber<>(new ObjectSink<String>("flowable", 4, reporter)));
+        Observable.<Long>error(new IllegalStateException()).subscribeWith(
+                new RecordingObserver<>(new NumberSink<Long>("error", 4, reporter)));
+
+        assertEquals("single onNext: [true] onComplete", reports.get(0));
+        assertEquals("flowable onNext: [a, b] onComplete", reports.get(1));
+        assertEquals("error onNext: [] onError: java.lang.IllegalStateException", reports.get(2));
+    }
+
+    @Test
+    public void terminalEventsCountAsDisposed() {
+        RecordingObserver<Integer> completed = Observable.just(1)
+                .subscribeWith(new RecordingObserver<>(new NumberSink<Integer>("completed", 4, reporter)));
+        RecordingObserver<Integer> failed = Observable.<Integer>error(new IllegalStateException())
+                .subscribeWith(new RecordingObserver<>(new NumberSink<Integer>("failed", 4, reporter)));
+        RecordingObserver<Boolean> succeeded = Single.just(true)
+                .subscribeWith(new RecordingObserver<>(new BooleanSink("succeeded", 4, reporter)));
+        RecordingSubscriber<String> flowable = Flowable.just("a")
+                .subscribeWith(new RecordingSubscriber<>(new ObjectSink<String>("flowable", 4, reporter)));
+        RecordingObserver<Integer> running = Observable.<Integer>never()
+                .subscribeWith(new RecordingObserver<>(new NumberSink<Integer>("running", 4, reporter)));
+
+        assertTrue(completed.isDisposed());
+        assertTrue(failed.isDisposed());
+        assertTrue(succeeded.isDisposed());
+        assertTrue(flowable.isDisposed());
+        assertFalse(running.isDisposed());
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        NumberSink<Integer> sink = new NumberSink<>("hot", 1024, reporter);
+        RecordingObserver<Integer> observer = new RecordingObserver<>(sink);
+        Integer value = 42;
+        for (int i = 0; i < 100_000; i++) {
+            observer.onNext(value);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 1_000_000; i++) {
+            observer.onNext(value);
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assertTrue("allocated " + allocated + " bytes", allocated < 16 * 1024);
+    }
+}
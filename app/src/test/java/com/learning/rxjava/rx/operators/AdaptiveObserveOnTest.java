@@ -0,0 +1,96 @@
+package com.learning.rxjava.rx.operators;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveObserveOnTest {
+
+    @Test
+    public void deliversEverythingInOrder() {
+        AdaptiveObserveOn<Integer> adaptive = new AdaptiveObserveOn.Builder(Schedulers.single()).build();
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 100_000)
+                .compose(adaptive)
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertValueCount(100_000).assertComplete();
+        assertEquals(Integer.valueOf(100_000), subscriber.values().get(99_999));
+    }
+
+    @Test
+    public void respectsDownstreamRequests() throws Exception {
+        AdaptiveObserveOn<Integer> adaptive = new AdaptiveObserveOn.Builder(Schedulers.single()).build();
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 100)
+                .compose(adaptive)
+                .test(0);
+        subscriber.request(5);
+        Thread.sleep(100);
+
+        subscriber.assertValues(1, 2, 3, 4, 5).assertNotComplete();
+        subscriber.request(95);
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertValueCount(100).assertComplete();
+    }
+
+    @Test
+    public void errorsComeAfterQueuedItems() {
+        AdaptiveObserveOn<Integer> adaptive = new AdaptiveObserveOn.Builder(Schedulers.single()).build();
+        TestSubscriber<Integer> subscriber = Flowable.just(1, 2)
+                .concatWith(Flowable.error(new IllegalStateException()))
+                .compose(adaptive)
+                .test();
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertValues(1, 2).assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void slowConsumerShrinksTheBound() {
+        AdaptiveObserveOn<Integer> adaptive = new AdaptiveObserveOn.Builder(Schedulers.single())
+                .bound(8, 1024)
+                .targetLatency(5, TimeUnit.MILLISECONDS)
+                .build();
+        Flowable.range(1, 2_000)
+                .compose(adaptive)
+                .doOnNext(v -> spin(TimeUnit.MICROSECONDS.toNanos(200)))
+                .test()
+                .awaitDone(20, TimeUnit.SECONDS)
+                .assertComplete();
+
+        // 5ms / 200us = 25 items
+        assertTrue("bound " + adaptive.bound(), adaptive.bound() <= 40);
+        assertTrue("batch " + adaptive.batch(), adaptive.batch() <= adaptive.bound());
+    }
+
+    @Test
+    public void fastConsumerKeepsADeepQueueAndLargeBatches() {
+        AdaptiveObserveOn<Integer> adaptive = new AdaptiveObserveOn.Builder(Schedulers.single())
+                .batch(4, 256)
+                .bound(8, 1024)
+                .build();
+        Flowable.range(1, 200_000)
+                .subscribeOn(Schedulers.computation())
+                .compose(adaptive)
+                .test()
+                .awaitDone(20, TimeUnit.SECONDS)
+                .assertComplete();
+
+        assertEquals(1024, adaptive.bound());
+        assertTrue("batch " + adaptive.batch(), adaptive.batch() > 4);
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            // busy wait
+        }
+    }
+}
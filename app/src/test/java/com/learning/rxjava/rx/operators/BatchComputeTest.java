@@ -0,0 +1,211 @@
+package com.learning.rxjava.rx.operators;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchComputeTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void emitsResultsInBatchOrder() {
+        // later batches finish first, the output order must not change
+        BatchCompute<Integer, Integer> sum = new BatchCompute.Builder<Integer, Integer>(batch -> {
+            Thread.sleep(Math.max(0, 20 - batch.get(0) / 10));
+            return batch.stream().mapToInt(Integer::intValue).sum();
+        }, Schedulers.single())
+                .closeAfter(10, 1, TimeUnit.SECONDS)
+                .pool(pool)
+                .maxBatches(4)
+                .build();
+
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 200).compose(sum).test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertValueCount(20).assertComplete();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(100 * i + 45), subscriber.values().get(i));
+        }
+    }
+
+    @Test
+    public void requestsOnlyWhatWasEmitted() throws Exception {
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        BatchCompute<Integer, Integer> size = new BatchCompute.Builder<Integer, Integer>(List::size,
+                Schedulers.single())
+                .closeAfter(10, 1, TimeUnit.SECONDS)
+                .pool(pool)
+                .maxBatches(2)
+                .build();
+
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 1000)
+                .doOnRequest(requests::add)
+                .compose(size)
+                .test(0);
+        Thread.sleep(100);
+
+        // two batches waiting for downstream and one full batch waiting for a slot
+        assertEquals(Arrays.asList(10L, 10L, 10L), requests);
+        subscriber.assertNoValues();
+
+        subscriber.request(1);
+        Thread.sleep(100);
+        subscriber.assertValues(10);
+        assertEquals(Arrays.asList(10L, 10L, 10L, 10L), requests);
+    }
+
+    @Test
+    public void slowSourceCantPileUpSmallBatches() throws Exception {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        AtomicLong requested = new AtomicLong();
+        AtomicInteger runs = new AtomicInteger();
+        BatchCompute<Integer, Integer> size = new BatchCompute.Builder<Integer, Integer>(batch -> {
+            runs.incrementAndGet();
+            return batch.size();
+        }, scheduler)
+                .closeAfter(10, 50, TimeUnit.MILLISECONDS)
+                .pool(pool)
+                .maxBatches(2)
+                .build();
+        TestSubscriber<Integer> subscriber = source.doOnRequest(requested::addAndGet).compose(size).test(0);
+
+        // one item every 60ms: every batch times out long before it's full
+        long sent = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sent < requested.get()) {
+                source.onNext(i);
+                sent++;
+            }
+            scheduler.advanceTimeBy(60, TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep(100);
+
+        // two single item batches wait for downstream, the third fills up but can't close
+        assertEquals(2, runs.get());
+        assertEquals(12, requested.get());
+        assertEquals(12, sent);
+        subscriber.assertNoValues();
+
+        subscriber.request(3);
+        Thread.sleep(100);
+        subscriber.assertValues(1, 1, 10);
+    }
+
+    @Test
+    public void closesPartialBatchesAfterMaxTime() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        BatchCompute<Integer, List<Integer>> identity = new BatchCompute.Builder<Integer, List<Integer>>(
+                ArrayList::new, scheduler)
+                .closeAfter(100, 50, TimeUnit.MILLISECONDS)
+                .pool(pool)
+                .build();
+        TestSubscriber<List<Integer>> subscriber = source.compose(identity).test();
+
+        source.onNext(1);
+        source.onNext(2);
+        scheduler.advanceTimeBy(49, TimeUnit.MILLISECONDS);
+        source.onNext(3);
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        source.onNext(4);
+        source.onComplete();
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertComplete();
+        assertEquals(2, subscriber.valueCount());
+        assertEquals(3, subscriber.values().get(0).size());
+        assertEquals(1, subscriber.values().get(1).size());
+    }
+
+    @Test
+    public void functionErrorCancelsUpstream() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        BatchCompute<Integer, Integer> failing = new BatchCompute.Builder<Integer, Integer>(batch -> {
+            throw new IllegalStateException();
+        }, Schedulers.single())
+                .closeAfter(2, 1, TimeUnit.SECONDS)
+                .pool(pool)
+                .build();
+        TestSubscriber<Integer> subscriber = source.compose(failing).test();
+
+        source.onNext(1);
+        source.onNext(2);
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertError(IllegalStateException.class);
+        assertFalse(source.hasSubscribers());
+    }
+
+    @Test
+    public void upstreamErrorComesAfterPendingResults() {
+        BatchCompute<Integer, Integer> size = new BatchCompute.Builder<Integer, Integer>(List::size,
+                Schedulers.single())
+                .closeAfter(4, 1, TimeUnit.SECONDS)
+                .pool(pool)
+                .build();
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 6)
+                .concatWith(Flowable.error(new IllegalStateException()))
+                .compose(size)
+                .test();
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertValues(4, 2).assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void ownPoolIsShutDownWithTheSubscription() throws Exception {
+        List<ForkJoinPool> pools = new CopyOnWriteArrayList<>();
+        BatchCompute<Integer, Integer> size = new BatchCompute.Builder<Integer, Integer>(batch -> {
+            pools.add(ForkJoinTask.getPool());
+            return batch.size();
+        }, Schedulers.single())
+                .closeAfter(2, 1, TimeUnit.SECONDS)
+                .maxBatches(2)
+                .build();
+
+        TestSubscriber<Integer> completed = Flowable.range(0, 4).compose(size).test();
+        completed.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        completed.assertValues(2, 2).assertComplete();
+
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> cancelled = source.compose(size).test();
+        source.onNext(1);
+        source.onNext(2);
+        cancelled.awaitCount(1);
+        cancelled.cancel();
+
+        assertEquals(3, pools.size());
+        assertNotSame(ForkJoinPool.commonPool(), pools.get(0));
+        assertNotSame(pools.get(0), pools.get(2));
+        for (ForkJoinPool used : pools) {
+            assertTrue(used.isShutdown());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.learning.rxjava.rx.operators;
+
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableOperator;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.internal.fuseable.QueueSubscription;
+import io.reactivex.processors.UnicastProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuseableSubscriberTest {
+
+    /**
+     * Keeps even numbers and halves them.
+     */
+    private static final FlowableOperator<Integer, Integer> HALF_EVENS =
+            downstream -> new FuseableSubscriber<Integer, Integer>(downstream) {
+                @Override
+                protected Integer apply(Integer v) {
+                    if (v < 0) {
+                        throw new IllegalArgumentException();
+                    }
+                    return v % 2 == 0 ? v / 2 : null;
+                }
+            };
+
+    @Test
+    public void droppedItemsAreRequestedAgain() {
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 100)
+                .hide()
+                .lift(HALF_EVENS)
+                .test(0);
+
+        subscriber.assertNoValues();
+        subscriber.request(3);
+        subscriber.assertValues(1, 2, 3).assertNotComplete();
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.assertValueCount(50).assertComplete();
+    }
+
+    @Test
+    public void syncFusionFiltersInPoll() {
+        FusingSubscriber subscriber = new FusingSubscriber(QueueSubscription.ANY);
+        Flowable.range(1, 10).lift(HALF_EVENS).subscribe(subscriber);
+
+        assertEquals(QueueSubscription.SYNC, subscriber.mode);
+        assertEquals(5, subscriber.values.size());
+    }
+
+    @Test
+    public void asyncFusionFiltersInPoll() {
+        UnicastProcessor<Integer> processor = UnicastProcessor.create();
+        FusingSubscriber subscriber = new FusingSubscriber(QueueSubscription.ASYNC);
+        processor.lift(HALF_EVENS).subscribe(subscriber);
+        for (int i = 1; i <= 6; i++) {
+            processor.onNext(i);
+        }
+
+        assertEquals(QueueSubscription.ASYNC, subscriber.mode);
+        assertEquals(3, subscriber.values.size());
+        assertEquals(Integer.valueOf(3), subscriber.values.get(2));
+    }
+
+    @Test
+    public void errorsCancelUpstreamAndTerminateOnce() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flowable.just(2, -1, 4)
+                .doOnCancel(() -> cancelled.set(true))
+                .lift(HALF_EVENS)
+                .test()
+                .assertValues(1)
+                .assertError(IllegalArgumentException.class);
+        assertTrue(cancelled.get());
+    }
+
+    /**
+     * Requests fusion like observeOn or concatMap do, then drains the queue.
+     */
+    private static final class FusingSubscriber implements FlowableSubscriber<Integer> {
+        final int requested;
+        final List<Integer> values = new ArrayList<>();
+        QueueSubscription<Integer> queue;
+        int mode;
+
+        FusingSubscriber(int requested) {
+            this.requested = requested;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSubscribe(Subscription s) {
+            queue = (QueueSubscription<Integer>) s;
+            mode = queue.requestFusion(requested);
+            if (mode == QueueSubscription.SYNC) {
+                drain();
+            } else {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            if (mode == QueueSubscription.ASYNC) {
+                drain();
+            } else {
+                values.add(value);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new AssertionError(e);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        private void drain() {
+            try {
+                for (Integer v = queue.poll(); v != null; v = queue.poll()) {
+                    values.add(v);
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
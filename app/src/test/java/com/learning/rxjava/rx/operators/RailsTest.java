@@ -0,0 +1,119 @@
+package com.learning.rxjava.rx.operators;
+
+import com.learning.rxjava.rx.metrics.InstrumentedRails;
+import com.learning.rxjava.rx.metrics.MetricsRegistry;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RailsTest {
+
+    @After
+    public void reset() {
+        MetricsRegistry.getDefault().reset();
+    }
+
+    @Test
+    public void orderedKeepsTheSourceOrder() {
+        // uneven work so rails finish out of order
+        Rails<Integer, Integer> rails = new Rails.Builder<Integer, Integer>(v -> {
+            if (v % 7 == 0) {
+                Thread.sleep(1);
+            }
+            return v * 2;
+        }, Schedulers.computation())
+                .rails(4)
+                .prefetch(16)
+                .ordered(true)
+                .build();
+
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 2000).compose(rails).test();
+
+        subscriber.awaitTerminalEvent(20, TimeUnit.SECONDS);
+        subscriber.assertValueCount(2000).assertComplete();
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(Integer.valueOf(i * 2), subscriber.values().get(i));
+        }
+    }
+
+    @Test
+    public void unorderedDeliversEverything() {
+        Rails<Integer, Integer> rails = new Rails.Builder<Integer, Integer>(v -> v, Schedulers.computation())
+                .rails(3)
+                .build();
+
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 10_000).compose(rails).test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertValueCount(10_000).assertComplete();
+        Set<Integer> distinct = new HashSet<>(subscriber.values());
+        assertEquals(10_000, distinct.size());
+    }
+
+    @Test
+    public void orderedRespectsDownstreamRequests() throws Exception {
+        Rails<Integer, Integer> rails = new Rails.Builder<Integer, Integer>(v -> v, Schedulers.computation())
+                .rails(2)
+                .prefetch(4)
+                .ordered(true)
+                .build();
+
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 100).compose(rails).test(0);
+        subscriber.request(3);
+        Thread.sleep(100);
+
+        subscriber.assertValues(0, 1, 2).assertNotComplete();
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertValueCount(100).assertComplete();
+    }
+
+    @Test
+    public void orderedFailsFast() {
+        Rails<Integer, Integer> rails = new Rails.Builder<Integer, Integer>(v -> {
+            if (v == 50) {
+                throw new IllegalStateException();
+            }
+            return v;
+        }, Schedulers.computation())
+                .rails(2)
+                .ordered(true)
+                .build();
+
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 1000).compose(rails).test();
+
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertError(IllegalStateException.class);
+        assertTrue(subscriber.valueCount() <= 50);
+    }
+
+    @Test
+    public void recordsMetricsPerRail() {
+        Rails<Integer, Integer> rails = new Rails.Builder<Integer, Integer>(v -> v, Schedulers.computation())
+                .rails(2)
+                .ordered(true)
+                .metrics(MetricsRegistry.getDefault(), "test.rails")
+                .build();
+
+        Flowable.range(0, 1000).compose(rails).test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(1000);
+
+        long items = 0;
+        for (int rail = 0; rail < 2; rail++) {
+            items += MetricsRegistry.getDefault().metrics(InstrumentedRails.railName("test.rails", rail)).items();
+        }
+        assertEquals(1000, items);
+    }
+}
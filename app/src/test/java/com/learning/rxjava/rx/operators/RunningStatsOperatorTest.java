@@ -0,0 +1,79 @@
+package com.learning.rxjava.rx.operators;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RunningStatsOperatorTest {
+
+    @Test
+    public void computesStatisticsWithoutOverflowingInt() {
+        List<RunningStats> emitted = new ArrayList<>();
+        Observable.just(Integer.MAX_VALUE, Integer.MAX_VALUE, 2, 4)
+                .lift(RunningStatsOperator.<Integer>create())
+                .subscribe(stats -> emitted.add(stats));
+
+        assertEquals(4, emitted.size());
+        assertSame(emitted.get(0), emitted.get(3));
+        RunningStats stats = emitted.get(3);
+        assertEquals(4, stats.count());
+        assertEquals(2L * Integer.MAX_VALUE + 6, stats.sum());
+        assertEquals(2, stats.min());
+        assertEquals(Integer.MAX_VALUE, stats.max());
+        assertEquals((2.0 * Integer.MAX_VALUE + 6) / 4, stats.mean(), 1e-6);
+    }
+
+    @Test
+    public void welfordVarianceMatchesTheTextbookValue() {
+        RunningStats stats = new RunningStats();
+        for (long v : new long[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            stats.add(v);
+        }
+        assertEquals(5.0, stats.mean(), 1e-9);
+        assertEquals(4.0, stats.variance(), 1e-9);
+        assertEquals(2.0, stats.standardDeviation(), 1e-9);
+        assertEquals(32.0 / 7, stats.sampleVariance(), 1e-9);
+    }
+
+    @Test
+    public void everyItemsFlushesTheRestOnCompletion() {
+        List<Long> counts = new ArrayList<>();
+        Observable.range(1, 25)
+                .lift(RunningStatsOperator.<Integer>everyItems(10))
+                .subscribe(stats -> counts.add(stats.count()));
+
+        assertEquals(3, counts.size());
+        assertEquals(Long.valueOf(10), counts.get(0));
+        assertEquals(Long.valueOf(20), counts.get(1));
+        assertEquals(Long.valueOf(25), counts.get(2));
+    }
+
+    @Test
+    public void everyPeriodUsesTheSchedulerClock() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> source = PublishSubject.create();
+        List<Long> counts = new ArrayList<>();
+        source.lift(RunningStatsOperator.<Integer>everyPeriod(100, TimeUnit.MILLISECONDS, scheduler))
+                .subscribe(stats -> counts.add(stats.count()));
+
+        source.onNext(1);
+        source.onNext(2);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        source.onNext(3);
+        source.onNext(4);
+        source.onComplete();
+
+        assertEquals(2, counts.size());
+        assertEquals(Long.valueOf(3), counts.get(0));
+        assertEquals(Long.valueOf(4), counts.get(1));
+    }
+}
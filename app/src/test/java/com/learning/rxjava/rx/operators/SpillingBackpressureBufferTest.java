@@ -0,0 +1,63 @@
+package com.learning.rxjava.rx.operators;
+
+import com.learning.rxjava.rx.spill.Serializer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingBackpressureBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysSpilledItemsInOrderAsRequested() throws Exception {
+        File directory = folder.newFolder();
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 100_000)
+                .compose(new SpillingBackpressureBuffer<>(128, directory, 64 * 1024, Serializer.INTEGER))
+                .test(0);
+
+        assertTrue(directory.list().length > 1);
+        subscriber.request(10);
+        subscriber.assertValues(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).assertNotComplete();
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.assertValueCount(100_000).assertComplete();
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(Integer.valueOf(i), subscriber.values().get(i));
+        }
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void errorsComeAfterBufferedItems() throws Exception {
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 1000)
+                .concatWith(Flowable.error(new IllegalStateException()))
+                .compose(new SpillingBackpressureBuffer<>(16, folder.newFolder(), 4096, Serializer.INTEGER))
+                .test(0);
+
+        subscriber.assertNoErrors();
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.assertValueCount(1000).assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void cancelDeletesTheSpillFiles() throws Exception {
+        File directory = folder.newFolder();
+        TestSubscriber<Integer> subscriber = Flowable.range(0, 10_000)
+                .compose(new SpillingBackpressureBuffer<>(16, directory, 4096, Serializer.INTEGER))
+                .test(0);
+
+        assertTrue(directory.list().length > 0);
+        subscriber.cancel();
+        assertEquals(0, directory.list().length);
+    }
+}
@@ -0,0 +1,83 @@
+package com.learning.rxjava.rx.operators;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WindowStatsOperatorTest {
+
+    @Test
+    public void countWindowSlidesByOne() {
+        List<WindowStats> emitted = new ArrayList<>();
+        Observable.just(1, 2, 3, 10, 20)
+                .lift(WindowStatsOperator.<Integer>count(3, 0.5))
+                .subscribe(stats -> emitted.add(stats.copy()));
+
+        assertEquals(5, emitted.size());
+        assertEquals(1.5, emitted.get(1).mean(), 1e-9);
+        assertEquals(2.0, emitted.get(2).mean(), 1e-9);
+        assertEquals(5.0, emitted.get(3).mean(), 1e-9);
+        WindowStats last = emitted.get(4);
+        assertEquals(3, last.count());
+        assertEquals(11.0, last.mean(), 1e-9);
+        assertEquals(10, last.p50());
+        assertEquals(5, last.cumulative().count());
+        // 1, 1.5, 2.25, 6.125, 13.0625
+        assertEquals(13.0625, last.ewma(), 1e-9);
+    }
+
+    @Test
+    public void timeWindowDropsExpiredSlots() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> source = PublishSubject.create();
+        List<WindowStats> emitted = new ArrayList<>();
+        source.lift(WindowStatsOperator.<Integer>time(100, TimeUnit.MILLISECONDS, 4, 1, scheduler))
+                .subscribe(stats -> emitted.add(stats.copy()));
+
+        source.onNext(100);
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        source.onNext(200);
+        assertEquals(2, emitted.get(1).count());
+
+        scheduler.advanceTimeBy(75, TimeUnit.MILLISECONDS);
+        source.onNext(300);
+        WindowStats stats = emitted.get(2);
+        assertEquals(2, stats.count());
+        assertEquals(250.0, stats.mean(), 1e-9);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        source.onNext(7);
+        assertEquals(1, emitted.get(3).count());
+        assertEquals(7, emitted.get(3).p99());
+    }
+
+    @Test
+    public void histogramPercentilesStayWithinOneEighth() {
+        LogHistogram histogram = new LogHistogram();
+        for (int v = 1; v <= 10_000; v++) {
+            histogram.add(v);
+        }
+        assertWithin(5_000, histogram.percentile(50));
+        assertWithin(9_500, histogram.percentile(95));
+        assertWithin(9_900, histogram.percentile(99));
+
+        for (int v = 1; v <= 5_000; v++) {
+            histogram.remove(v);
+        }
+        assertWithin(7_500, histogram.percentile(50));
+        assertEquals(5_000, histogram.count());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " vs " + expected, actual >= expected && actual <= expected * 9 / 8);
+    }
+}
@@ -0,0 +1,184 @@
+package com.learning.rxjava.rx.sources;
+
+import com.learning.rxjava.rx.spill.MappedSpillQueue;
+import com.learning.rxjava.rx.spill.Serializer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IngestionGatewayTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void millionPushedItemsNeverBreakBackpressure() {
+        IngestionGateway<Integer> gateway =
+                new IngestionGateway<>(1024, OverflowPolicy.<Integer>dropNewest(), Schedulers.single());
+        TestSubscriber<Integer> subscriber = gateway.flowable()
+                .observeOn(Schedulers.computation())
+                .test();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            gateway.offer(i);
+        }
+        gateway.complete();
+
+        subscriber.awaitTerminalEvent(20, TimeUnit.SECONDS);
+        subscriber.assertNoErrors().assertComplete();
+        assertEquals(1_000_000, gateway.accepted() + gateway.dropped());
+        assertEquals(gateway.accepted(), subscriber.valueCount());
+        assertTrue(gateway.highWater() <= gateway.capacity());
+    }
+
+    @Test
+    public void dropOldestKeepsTheLatestItems() {
+        IngestionGateway<Integer> gateway =
+                new IngestionGateway<>(4, OverflowPolicy.<Integer>dropOldest(), Schedulers.trampoline());
+        TestSubscriber<Integer> subscriber = gateway.flowable().test(0);
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(gateway.offer(i));
+        }
+        gateway.complete();
+        subscriber.request(Long.MAX_VALUE);
+
+        subscriber.assertValues(7, 8, 9, 10).assertComplete();
+        assertEquals(6, gateway.dropped());
+        assertEquals(6, gateway.overflowed());
+        assertEquals(4, gateway.highWater());
+    }
+
+    @Test
+    public void sampleKeepsOneOverflowingItemOutOfN() {
+        IngestionGateway<Integer> gateway =
+                new IngestionGateway<>(2, OverflowPolicy.<Integer>sample(4), Schedulers.trampoline());
+        TestSubscriber<Integer> subscriber = gateway.flowable().test(0);
+        for (int i = 1; i <= 10; i++) {
+            gateway.offer(i);
+        }
+        gateway.complete();
+        subscriber.request(Long.MAX_VALUE);
+
+        // 3..10 overflow, 6 and 10 are kept, each evicting the oldest
+        subscriber.assertValues(6, 10).assertComplete();
+    }
+
+    @Test
+    public void blockWithTimeoutGivesUp() {
+        IngestionGateway<Integer> gateway = new IngestionGateway<>(2,
+                OverflowPolicy.<Integer>blockWithTimeout(50, TimeUnit.MILLISECONDS), Schedulers.single());
+        gateway.flowable().test(0);
+        gateway.offer(1);
+        gateway.offer(2);
+
+        long start = System.nanoTime();
+        assertFalse(gateway.offer(3));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, gateway.dropped());
+    }
+
+    @Test
+    public void spillToDiskLosesNothingAndKeepsProducerOrder() throws Exception {
+        File directory = folder.newFolder("spill");
+        MappedSpillQueue<Integer> spill = new MappedSpillQueue<>(directory, 4096, Serializer.INTEGER);
+        IngestionGateway<Integer> gateway =
+                new IngestionGateway<>(64, OverflowPolicy.spillToDisk(spill), Schedulers.single());
+        TestSubscriber<Integer> subscriber = gateway.flowable().test(0);
+
+        int producers = 4;
+        int perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    gateway.offer(producer * perProducer + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        gateway.complete();
+        assertTrue(gateway.spilled() > 0);
+        // the worker writes to disk after the producers handed the items over
+        for (int i = 0; i < 500 && spill.segmentCount() <= 1; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(spill.segmentCount() > 1);
+
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.awaitTerminalEvent(20, TimeUnit.SECONDS);
+        subscriber.assertComplete().assertValueCount(producers * perProducer);
+        assertEquals(0, gateway.dropped());
+
+        int[] last = {-1, -1, -1, -1};
+        for (Integer v : subscriber.values()) {
+            int producer = v / perProducer;
+            assertTrue(v > last[producer]);
+            last[producer] = v;
+        }
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void spillingProducersDontWaitForTheDisk() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Serializer<Integer> slowDisk = new Serializer<Integer>() {
+            @Override
+            public void write(Integer value, ByteBuffer target) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                target.putInt(value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer source) {
+                return source.getInt();
+            }
+        };
+        MappedSpillQueue<Integer> spill =
+                new MappedSpillQueue<>(folder.newFolder("slow"), 4096, slowDisk);
+        IngestionGateway<Integer> gateway =
+                new IngestionGateway<>(4, OverflowPolicy.spillToDisk(spill), Schedulers.single());
+        TestSubscriber<Integer> subscriber = gateway.flowable().test(0);
+
+        // the worker is stuck writing the first spilled item, the producer goes on
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(gateway.offer(i));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(96, gateway.spilled());
+
+        release.countDown();
+        gateway.complete();
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertComplete().assertValueCount(100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), subscriber.values().get(i));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.learning.rxjava.rx.sources;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.TestObserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MpscObservableTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int ITEMS = 50_000;
+
+    @Test
+    public void concurrentProducersAreSerialized() throws Exception {
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicInteger inOnNext = new AtomicInteger();
+        int[] lastPerProducer = new int[PRODUCERS];
+        boolean[] outOfOrder = new boolean[1];
+        int[] received = new int[1];
+        boolean[] completed = new boolean[1];
+
+        Observable<Integer> source = MpscObservable.create(emitter -> {
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                threads.add(new Thread(() -> {
+                    for (int i = 1; i <= ITEMS; i++) {
+                        emitter.onNext(producer * ITEMS * 10 + i);
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            emitter.onComplete();
+            emitter.onNext(-1);
+        });
+
+        source.subscribe(new Observer<Integer>() {
+            @Override
+            public void onSubscribe(Disposable d) {
+            }
+
+            @Override
+            public void onNext(Integer v) {
+                if (inOnNext.getAndIncrement() != 0) {
+                    overlapped.set(true);
+                }
+                int producer = v / (ITEMS * 10);
+                int sequence = v % (ITEMS * 10);
+                if (sequence != lastPerProducer[producer] + 1) {
+                    outOfOrder[0] = true;
+                }
+                lastPerProducer[producer] = sequence;
+                received[0]++;
+                inOnNext.decrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                throw new AssertionError(e);
+            }
+
+            @Override
+            public void onComplete() {
+                completed[0] = true;
+            }
+        });
+
+        assertFalse("onNext overlapped", overlapped.get());
+        assertFalse("a producer's items were reordered", outOfOrder[0]);
+        assertEquals(PRODUCERS * ITEMS, received[0]);
+        assertTrue(completed[0]);
+    }
+
+    @Test
+    public void errorCutsAheadAndDisposesTheResource() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        TestObserver<Integer> observer = MpscObservable.<Integer>create(emitter -> {
+            emitter.setCancellable(() -> cancelled.set(true));
+            emitter.onNext(1);
+            emitter.onError(new IllegalStateException());
+            emitter.onNext(2);
+            assertFalse(emitter.tryOnError(new IllegalArgumentException()));
+        }).test();
+
+        observer.assertValues(1).assertError(IllegalStateException.class);
+        assertTrue(cancelled.get());
+    }
+}
@@ -0,0 +1,74 @@
+package com.learning.rxjava.rx.spill;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedSpillQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rollsOverSegmentsAndDeletesThemOnceRead() throws Exception {
+        File directory = folder.newFolder();
+        MappedSpillQueue<String> queue = new MappedSpillQueue<>(directory, 64, Serializer.STRING);
+        for (int i = 0; i < 100; i++) {
+            queue.offer("item-" + i);
+        }
+        assertEquals(100, queue.size());
+        assertTrue(queue.segmentCount() > 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("item-" + i, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(1, queue.segmentCount());
+        assertEquals(1, directory.list().length);
+
+        // the last segment is rewound and reused
+        queue.offer("again");
+        assertEquals("again", queue.poll());
+        assertEquals(1, directory.list().length);
+
+        queue.close();
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void queuesSharingADirectoryKeepTheirOwnRecords() throws Exception {
+        File directory = folder.newFolder();
+        List<MappedSpillQueue<Integer>> queues = new ArrayList<>();
+        for (int q = 0; q < 8; q++) {
+            queues.add(new MappedSpillQueue<>(directory, 64, Serializer.INTEGER));
+        }
+        for (int i = 0; i < 100; i++) {
+            for (int q = 0; q < queues.size(); q++) {
+                queues.get(q).offer(q * 1000 + i);
+            }
+        }
+
+        for (int q = 0; q < queues.size(); q++) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(Integer.valueOf(q * 1000 + i), queues.get(q).poll());
+            }
+            queues.get(q).close();
+        }
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRecordsLargerThanASegment() throws Exception {
+        new MappedSpillQueue<>(folder.newFolder(), 16, Serializer.STRING)
+                .offer("much longer than sixteen bytes");
+    }
+}
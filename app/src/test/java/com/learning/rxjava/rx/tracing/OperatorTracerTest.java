@@ -0,0 +1,76 @@
+package com.learning.rxjava.rx.tracing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OperatorTracerTest {
+
+    private final OperatorTracer tracer = OperatorTracer.getInstance();
+
+    @After
+    public void tearDown() {
+        tracer.disable();
+        tracer.reset();
+    }
+
+    @Test
+    public void attributesSelfTimeToTheOperator() {
+        tracer.enable(1);
+        Observable.range(1, 100)
+                .map(OperatorTracerTest::spin)
+                .filter(v -> true)
+                .test()
+                .assertValueCount(100);
+
+        OperatorStats map = stats("ObservableMap");
+        OperatorStats filter = stats("ObservableFilter");
+        assertEquals(1, map.assembled.sum());
+        assertEquals(100, map.calls());
+        assertEquals(100, map.sampledCalls());
+        // map spins for 50us, filter does nothing: nested time must not leak into map's parent
+        assertTrue(map.meanSelfNanos() >= TimeUnit.MICROSECONDS.toNanos(50));
+        assertTrue(filter.meanSelfNanos() < map.meanSelfNanos());
+        assertEquals("ObservableMap", tracer.report().get(0).operator());
+    }
+
+    @Test
+    public void samplesAndCanBeSwitchedOff() {
+        tracer.enable(10);
+        Flowable.range(1, 1000).map(v -> v + 1).test().assertValueCount(1000);
+
+        OperatorStats map = stats("FlowableMap");
+        assertEquals(1000, map.calls());
+        assertEquals(100, map.sampledCalls());
+
+        tracer.disable();
+        assertFalse(tracer.isEnabled());
+        Flowable.range(1, 1000).map(v -> v + 1).test().assertValueCount(1000);
+        assertEquals(1000, map.calls());
+    }
+
+    private OperatorStats stats(String operator) {
+        for (OperatorStats stats : tracer.report()) {
+            if (stats.operator().equals(operator)) {
+                return stats;
+            }
+        }
+        throw new AssertionError(operator + " not traced:\n" + tracer.dump());
+    }
+
+    private static int spin(int v) {
+        long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(50);
+        while (System.nanoTime() < end) {
+            // busy wait
+        }
+        return v;
+    }
+}